@@ -0,0 +1,49 @@
+
+
+/**
+ * Benchmarks clearing the depth and frame buffers at several resolutions, both by writing to every
+ * pixel and by starting a new depth generation, where only one of every {@link Shader#CLEAR_GENERATIONS}
+ * operations writes to the buffers.
+ * <p>
+ * Measured by bench.ClearBenchmark, which passes the resolution, and "lazy" or "full" as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class ClearWorkload implements bench.Workload
+{
+	/** Resolution of the buffers */
+	private String resolution;
+	/** Whether every pixel is written, or a new depth generation is started */
+	private boolean lazy;
+	
+	/** {@link Shader} whose buffers are cleared */
+	private Shader shader;
+	/** Number of pixels of the buffers */
+	private long pixels;
+	
+	@Override
+	public void setup(String... params)
+	{
+		resolution = params[0];
+		lazy = params[1].equals("lazy");
+		String[] size = resolution.split("x");
+		shader = new Shader(Integer.parseInt(size[0]), Integer.parseInt(size[1]), new ShaderProperty());
+		pixels = Long.parseLong(size[0]) * Long.parseLong(size[1]);
+	}
+	
+	@Override
+	public long pixels()
+	{
+		return pixels;
+	}
+	
+	@Override
+	public Object run()
+	{
+		if(lazy)
+			shader.clear();
+		else
+			shader.clearDepth();
+		return shader.depth;
+	}
+}
@@ -0,0 +1,75 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmarks rendering and presenting whole frames of small triangles at 1920x1080, either one after 
+ * the other on the same thread or through a {@link FramePipeline}. Presenting draws the frame into an
+ * image, then waits 4 ms like a buffer strategy waiting for the display, which the pipeline overlaps
+ * with rendering.
+ * <p>
+ * Measured by bench.FrameBenchmark, which passes whether frames are sequential or pipelined as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class FrameWorkload implements bench.Workload
+{
+	/** Whether frames are presented on the rendering thread or through a {@link FramePipeline} */
+	private String pipeline;
+	
+	/** Triangles rendered each frame */
+	private List<float[][]> scene;
+	/** {@link Shader} that renders the frames */
+	private Shader shader;
+	/** Destination of the frames */
+	private Graphics2D screen;
+	/** Pipeline presenting the frames, or null when presenting on the rendering thread */
+	private FramePipeline frames;
+	
+	@Override
+	public void setup(String... params)
+	{
+		pipeline = params[0];
+		scene = Scenes.triangles("small");
+		shader = Scenes.shader(Scenes.WIDTH, Scenes.HEIGHT, true);
+		screen = new BufferedImage(Scenes.WIDTH, Scenes.HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+		if(pipeline.equals("pipelined"))
+		{
+			frames = new FramePipeline(shader, 2, (image) -> {
+				screen.drawImage(image, 0, 0, null);
+				LockSupport.parkNanos(4000000L);
+			});
+		}
+	}
+	
+	@Override
+	public long pixels()
+	{
+		return (long)Scenes.WIDTH * Scenes.HEIGHT;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		if(frames != null)
+			frames.close();
+		screen.dispose();
+	}
+	
+	@Override
+	public Object run() throws InterruptedException
+	{
+		shader.clear();
+		for(float[][] t : scene)
+			shader.render(t);
+		if(frames != null)
+			frames.submit();
+		else
+		{
+			shader.present(screen, 0, 0);
+			LockSupport.parkNanos(4000000L);
+		}
+		return shader.frame;
+	}
+}
@@ -0,0 +1,137 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks loading a 400x400 grid mesh of 320000 triangles from an OBJ file, both with 
+ * {@link Mesh#loadObj(File, ShaderProperty)} (obj) and with a parser reading line by line (obj-reader),
+ * and mapping the same mesh from a mesh file (binary).
+ * <p>
+ * Measured by bench.MeshImportBenchmark, which passes how the mesh is loaded as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class MeshImportWorkload implements bench.Workload
+{
+	/** Number of cells along each side of the grid */
+	private static final int CELLS = 400;
+	
+	/** How the mesh is loaded */
+	private String format;
+	
+	/** Vertex structure of the mesh */
+	private final ShaderProperty property = new ShaderProperty(8, 2, 3);
+	/** Folder holding the files */
+	private File dir;
+	/** OBJ file of the mesh */
+	private File obj;
+	/** Mesh file of the mesh */
+	private File binary;
+	
+	@Override
+	public void setup(String... params) throws IOException
+	{
+		format = params[0];
+		int columns = CELLS + 1;
+		dir = Files.createTempDirectory("benchmark").toFile();
+		obj = new File(dir, "grid.obj");
+		try(PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(obj))))
+		{
+			for(int y = 0; y < columns; y++)
+			{
+				for(int x = 0; x < columns; x++)
+				{
+					out.println("v " + x / (float)CELLS + " " + y / (float)CELLS + " " + (float)Math.sin(x * 0.1) * (float)Math.cos(y * 0.1));
+					out.println("vt " + x / (float)CELLS + " " + y / (float)CELLS);
+					out.println("vn 0.0 0.0 1.0");
+				}
+			}
+			for(int y = 0; y < CELLS; y++)
+			{
+				for(int x = 0; x < CELLS; x++)
+				{
+					int a = x + y * columns + 1, b = a + 1, c = b + columns, d = a + columns;
+					out.println("f " + a + "/" + a + "/" + a + " " + b + "/" + b + "/" + b + " " + c + "/" + c + "/" + c + " " + d + "/" + d + "/" + d);
+				}
+			}
+		}
+		binary = new File(dir, "grid.mesh");
+		Mesh.loadObj(obj, property).save(binary);
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		for(File file : dir.listFiles())
+			file.delete();
+		dir.delete();
+	}
+	
+	@Override
+	public Object run() throws IOException
+	{
+		switch(format)
+		{
+		case "obj":
+			return Mesh.loadObj(obj, property);
+		case "obj-reader":
+			return readObj(obj, property.inputSize);
+		default:
+			return Mesh.map(binary, property);
+		}
+	}
+	
+	/**
+	 * Reads an OBJ file line by line into separate triangles, as a baseline for {@link Mesh#loadObj(File, ShaderProperty)}.
+	 * Only faces whose corners have a position, texture coordinates and normal are supported.
+	 * @param file OBJ file
+	 * @param size number of floats of each vertex
+	 * @return vertices of each triangle, one after another
+	 * @throws IOException if the file can't be read
+	 */
+	private static float[] readObj(File file, int size) throws IOException
+	{
+		List<float[]> positions = new ArrayList<>(), texcoords = new ArrayList<>(), normals = new ArrayList<>();
+		List<float[]> corners = new ArrayList<>();
+		try(BufferedReader in = new BufferedReader(new FileReader(file)))
+		{
+			for(String line; (line = in.readLine()) != null; )
+			{
+				String[] tokens = line.trim().split("\\s+");
+				if(tokens[0].equals("v"))
+					positions.add(new float[] { Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2]), Float.parseFloat(tokens[3]) });
+				else if(tokens[0].equals("vt"))
+					texcoords.add(new float[] { Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2]) });
+				else if(tokens[0].equals("vn"))
+					normals.add(new float[] { Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2]), Float.parseFloat(tokens[3]) });
+				else if(tokens[0].equals("f"))
+				{
+					for(int i = 2; i + 1 < tokens.length; i++)
+					{
+						for(String token : new String[] { tokens[1], tokens[i], tokens[i + 1] })
+						{
+							String[] parts = token.split("/");
+							float[] vertex = new float[size];
+							System.arraycopy(positions.get(Integer.parseInt(parts[0]) - 1), 0, vertex, 0, 3);
+							System.arraycopy(texcoords.get(Integer.parseInt(parts[1]) - 1), 0, vertex, 3, 2);
+							System.arraycopy(normals.get(Integer.parseInt(parts[2]) - 1), 0, vertex, 5, 3);
+							corners.add(vertex);
+						}
+					}
+				}
+			}
+		}
+		
+		float[] vertices = new float[corners.size() * size];
+		for(int i = 0; i < corners.size(); i++)
+			System.arraycopy(corners.get(i), 0, vertices, i * size, size);
+		return vertices;
+	}
+}
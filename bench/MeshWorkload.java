@@ -0,0 +1,118 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmarks rendering a 64x64 grid mesh with a costly vertex shader, once as separate triangles (arrays),
+ * once as an indexed triangle list, where each shared vertex is only transformed once (indexed),
+ * and once as an indexed triangle list read from an off-heap {@link VertexBuffer} (buffer).
+ * <p>
+ * Measured by bench.MeshBenchmark, which passes how the mesh is drawn as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class MeshWorkload implements bench.Workload
+{
+	/** Number of cells along each side of the grid */
+	private static final int CELLS = 64;
+	/** Number of floats of each vertex */
+	private static final int STRIDE = 5;
+	
+	/** How the mesh is drawn */
+	private String mode;
+	
+	/** Interleaved vertices of the grid */
+	private float[] vertices;
+	/** Indices of the triangles of the grid */
+	private int[] indices;
+	/** Vertex arrays of each triangle, for the arrays mode */
+	private List<float[][]> triangles;
+	/** Off-heap copy of the vertices, for the buffer mode */
+	private VertexBuffer buffer;
+	/** Off-heap copy of the indices, for the buffer mode */
+	private IntBuffer indexBuffer;
+	/** {@link Shader} that renders the mesh */
+	private Shader shader;
+	
+	@Override
+	public void setup(String... params)
+	{
+		mode = params[0];
+		int columns = CELLS + 1;
+		vertices = new float[columns * columns * STRIDE];
+		for(int y = 0, v = 0; y < columns; y++)
+		{
+			for(int x = 0; x < columns; x++, v += STRIDE)
+			{
+				vertices[v] = x / (float)CELLS;
+				vertices[v + 1] = y / (float)CELLS;
+				vertices[v + 2] = 0.5f;
+				vertices[v + 3] = x / (float)CELLS;
+				vertices[v + 4] = y / (float)CELLS;
+			}
+		}
+		indices = new int[CELLS * CELLS * 6];
+		for(int y = 0, i = 0; y < CELLS; y++)
+		{
+			for(int x = 0; x < CELLS; x++, i += 6)
+			{
+				int a = x + y * columns;
+				indices[i] = a;
+				indices[i + 1] = a + 1;
+				indices[i + 2] = a + 1 + columns;
+				indices[i + 3] = a;
+				indices[i + 4] = a + 1 + columns;
+				indices[i + 5] = a + columns;
+			}
+		}
+		triangles = new ArrayList<>();
+		for(int i = 0; i < indices.length; i += 3)
+		{
+			float[][] t = new float[3][];
+			for(int c = 0; c < 3; c++)
+				t[c] = Arrays.copyOfRange(vertices, indices[i + c] * STRIDE, (indices[i + c] + 1) * STRIDE);
+			triangles.add(t);
+		}
+		
+		buffer = new VertexBuffer(new ShaderProperty(STRIDE, 2, 3), vertices.length / STRIDE);
+		for(int v = 0; v < buffer.count; v++)
+			buffer.set(v, Arrays.copyOfRange(vertices, v * STRIDE, (v + 1) * STRIDE));
+		indexBuffer = ByteBuffer.allocateDirect(indices.length * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer().put(indices);
+		indexBuffer.flip();
+		
+		shader = Scenes.shader(Scenes.WIDTH, Scenes.HEIGHT, false);
+		shader.setVertexShader((in, out) -> {
+			// Wave displacement, standing in for a skinned or animated vertex
+			float x = in[0], y = in[1];
+			for(int i = 0; i < 4; i++)
+			{
+				x += 0.001f * (float)Math.sin(y * 17.0f + i);
+				y += 0.001f * (float)Math.cos(x * 13.0f + i);
+			}
+			out.x = x;
+			out.y = y;
+			out.z = in[2];
+			out.attributes[0] = in[3];
+			out.attributes[1] = in[4];
+		});
+	}
+	
+	@Override
+	public Object run()
+	{
+		if(mode.equals("indexed"))
+			shader.render(vertices, indices, Shader.Primitive.TRIANGLES);
+		else if(mode.equals("buffer"))
+			shader.render(buffer, indexBuffer, Shader.Primitive.TRIANGLES);
+		else
+		{
+			for(float[][] t : triangles)
+				shader.render(t);
+		}
+		shader.flush();
+		return shader.frame;
+	}
+}
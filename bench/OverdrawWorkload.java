@@ -0,0 +1,114 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Benchmarks rendering 16 layers of screen-filling quads with a costly fragment shader, drawn from 
+ * front to back, where every layer after the first is hidden, and from back to front, where every 
+ * layer is shaded when shading immediately. Each pipeline mode is run with and without the
+ * hierarchical depth buffer (*-hiz), with deferred shading, and through a {@link CommandBuffer} that
+ * sorts the layers front to back.
+ * <p>
+ * Measured by bench.OverdrawBenchmark, which passes the order of the layers and the pipeline mode as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class OverdrawWorkload implements bench.Workload
+{
+	/** Number of layers of quads */
+	private static final int LAYERS = 16;
+	
+	/** Order the layers are drawn in */
+	private String order;
+	/** Pipeline mode */
+	private String mode;
+	
+	/** Triangles rendered each operation */
+	private List<float[][]> scene;
+	/** Number of pixels covered by {@link #scene} */
+	private long pixels;
+	/** {@link Shader} that renders the layers */
+	private Shader shader;
+	/** Draws recorded once and submitted each operation in the commands modes */
+	private CommandBuffer commands;
+	/** Destination of the graphics2d modes */
+	private Graphics2D gl;
+	
+	@Override
+	public void setup(String... params)
+	{
+		order = params[0];
+		mode = params[1];
+		scene = new ArrayList<>();
+		for(int i = 0; i < LAYERS; i++)
+		{
+			float z = 1.0f - i / (float)LAYERS;
+			float[][] a = Scenes.triangle(0, 0, 1, 0, 1, 1);
+			float[][] b = Scenes.triangle(0, 0, 1, 1, 0, 1);
+			for(int v = 0; v < 3; v++)
+				a[v][2] = b[v][2] = z;
+			scene.add(a);
+			scene.add(b);
+		}
+		if(order.equals("back-to-front"))
+			Collections.reverse(scene);
+		pixels = Scenes.pixels(scene);
+		
+		shader = Scenes.shader(Scenes.WIDTH, Scenes.HEIGHT, true);
+		shader.setFragmentShader((f) -> {
+			float u = f.attributes[0], v = f.attributes[1];
+			for(int i = 0; i < 8; i++)
+			{
+				u = (float)Math.sqrt(u * u + v * 0.5f);
+				v = v * 0.75f + u * 0.25f;
+			}
+			f.write(((int)(u * 255) << 8) | (int)(v * 255));
+		});
+		shader.setHierarchicalDepth(mode.endsWith("hiz"));
+		shader.setDeferred(mode.equals("deferred"));
+		
+		if(mode.startsWith("commands"))
+		{
+			commands = new CommandBuffer();
+			commands.clear();
+			for(float[][] t : scene)
+				commands.draw(t);
+		}
+		gl = new BufferedImage(Scenes.WIDTH, Scenes.HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+	}
+	
+	@Override
+	public long pixels()
+	{
+		return pixels;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		gl.dispose();
+	}
+	
+	@Override
+	public Object run()
+	{
+		if(commands != null)
+		{
+			commands.submit(shader);
+			return shader.frame;
+		}
+		
+		shader.clear();
+		for(float[][] t : scene)
+		{
+			if(mode.startsWith("graphics2d"))
+				shader.render(gl, t);
+			else
+				shader.render(t);
+		}
+		shader.flush();
+		return shader.frame;
+	}
+}
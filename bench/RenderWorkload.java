@@ -0,0 +1,89 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Benchmarks rendering tiny, screen-filling and sliver triangles in each pipeline mode at 1920x1080.
+ * The depth is never written, so every fragment is shaded in each operation.
+ * <ul>
+ * <li>graphics2d: filled through {@link Graphics2D}, strip by strip</li>
+ * <li>present: the built-in rasterizer, then presented with {@link Shader#present(Graphics2D, int, int)}</li>
+ * <li>serial, span: the built-in rasterizer on the calling thread</li>
+ * <li>parallel: tiles rasterized on every processor</li>
+ * <li>*-shared: the fragment loops shared by every {@link Shader} instead of specialized ones</li>
+ * <li>serial-profiled: with a {@link Profiler} set</li>
+ * </ul>
+ * <p>
+ * Measured by bench.RenderBenchmark, which passes the scene and the pipeline mode as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class RenderWorkload implements bench.Workload
+{
+	/** Scene from {@link Scenes#triangles(String)} */
+	private String triangles;
+	/** Pipeline mode */
+	private String mode;
+	
+	/** Triangles rendered each operation */
+	private List<float[][]> scene;
+	/** Number of pixels covered by {@link #scene} */
+	private long pixels;
+	/** {@link Shader} that renders the triangles */
+	private Shader shader;
+	/** Destination of the graphics2d and present modes */
+	private Graphics2D gl;
+	
+	@Override
+	public void setup(String... params)
+	{
+		triangles = params[0];
+		mode = params[1];
+		scene = Scenes.triangles(triangles);
+		pixels = Scenes.pixels(scene);
+		shader = Scenes.shader(Scenes.WIDTH, Scenes.HEIGHT, false);
+		if(mode.startsWith("span"))
+		{
+			shader.setSpanShader((s) -> {
+				for(int i = 0; i < s.length; i++)
+					s.frame[s.index + i] = ((int)(s.attribute(0, i) * 255) << 8) | (int)(s.attribute(1, i) * 255);
+			});
+		}
+		shader.setSpecialized(!mode.endsWith("shared"));
+		shader.setProfiler(mode.endsWith("profiled") ? new Profiler() : null);
+		shader.setParallelism(mode.equals("parallel") ? Runtime.getRuntime().availableProcessors() : 1);
+		gl = new BufferedImage(Scenes.WIDTH, Scenes.HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+	}
+	
+	@Override
+	public long pixels()
+	{
+		return pixels;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		shader.setParallelism(1);
+		gl.dispose();
+	}
+	
+	@Override
+	public Object run()
+	{
+		if(mode.startsWith("graphics2d"))
+		{
+			for(float[][] t : scene)
+				shader.render(gl, t);
+			return shader.frame;
+		}
+		
+		for(float[][] t : scene)
+			shader.render(t);
+		if(mode.equals("present"))
+			shader.present(gl, 0, 0);
+		else
+			shader.flush();
+		return shader.frame;
+	}
+}
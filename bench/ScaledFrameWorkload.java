@@ -0,0 +1,61 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Benchmarks rendering whole frames below the output resolution of 1920x1080, as chosen by a 
+ * {@link ResolutionController}, and presenting them stretched over the output with each 
+ * {@link Shader.Upscale} filter. At a scale of 100 the frame is drawn without stretching.
+ * <p>
+ * Measured by bench.ScaledFrameBenchmark, which passes the scale in percent and the name of the {@link Shader.Upscale} filter as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class ScaledFrameWorkload implements bench.Workload
+{
+	/** Resolution of each axis in percent of the output */
+	private int scale;
+	/** Filter that stretches the frame over the output */
+	private Shader.Upscale upscale;
+	
+	/** Small triangles and two triangles covering the screen */
+	private List<float[][]> scene;
+	/** {@link Shader} that renders the frames */
+	private Shader shader;
+	/** Destination of the frames */
+	private Graphics2D screen;
+	
+	@Override
+	public void setup(String... params)
+	{
+		scale = Integer.parseInt(params[0]);
+		upscale = Shader.Upscale.valueOf(params[1]);
+		scene = Scenes.triangles("small");
+		scene.addAll(Scenes.triangles("fill"));
+		shader = Scenes.shader(Scenes.WIDTH, Scenes.HEIGHT, true);
+		shader.setResolution(Scenes.WIDTH * scale / 100, Scenes.HEIGHT * scale / 100);
+		screen = new BufferedImage(Scenes.WIDTH, Scenes.HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+	}
+	
+	@Override
+	public long pixels()
+	{
+		return (long)Scenes.WIDTH * Scenes.HEIGHT;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		screen.dispose();
+	}
+	
+	@Override
+	public Object run()
+	{
+		shader.clear();
+		for(float[][] t : scene)
+			shader.render(t);
+		shader.present(screen, 0, 0, Scenes.WIDTH, Scenes.HEIGHT, upscale);
+		return shader.frame;
+	}
+}
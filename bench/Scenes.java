@@ -0,0 +1,142 @@
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Scenes and shaders shared by the benchmarks. Every scene is generated from a fixed seed,
+ * so each fork of a benchmark renders exactly the same triangles.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+final class Scenes
+{
+	/** Horizontal resolution the benchmarks render at */
+	static final int WIDTH = 1920;
+	/** Vertical resolution the benchmarks render at */
+	static final int HEIGHT = 1080;
+	
+	private Scenes() { }
+	
+	/**
+	 * Creates the triangles of a scene.
+	 * @param name "tiny" for thousands of triangles covering a few pixels each, "fill" for two triangles 
+	 * 		covering the whole screen, "sliver" for long triangles that are only a pixel or two wide, 
+	 * 		or "small" for thousands of triangles covering about 70 pixels each
+	 * @return vertex arrays of the triangles
+	 */
+	static List<float[][]> triangles(String name)
+	{
+		Random random = new Random(0);
+		List<float[][]> triangles = new ArrayList<>();
+		switch(name)
+		{
+		case "tiny":
+			for(int i = 0; i < 20000; i++)
+			{
+				float x = random.nextFloat();
+				float y = random.nextFloat();
+				triangles.add(triangle(x, y, x + 3.0f / WIDTH, y, x, y + 3.0f / HEIGHT));
+			}
+			break;
+		case "fill":
+			triangles.add(triangle(0, 0, 1, 0, 1, 1));
+			triangles.add(triangle(0, 0, 1, 1, 0, 1));
+			break;
+		case "sliver":
+			for(int i = 0; i < 500; i++)
+			{
+				float y = random.nextFloat();
+				triangles.add(triangle(0, y, 1, y + 1.0f / HEIGHT, 1, y + 3.0f / HEIGHT));
+			}
+			break;
+		case "small":
+			for(int i = 0; i < 5000; i++)
+			{
+				float x = random.nextFloat();
+				float y = random.nextFloat();
+				triangles.add(triangle(x, y, x + 12.0f / WIDTH, y, x, y + 12.0f / HEIGHT));
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown scene: " + name);
+		}
+		return triangles;
+	}
+	
+	/**
+	 * Creates a {@link Shader} whose vertex shader passes the position and two texture coordinates
+	 * through, and whose fragment shader writes the texture coordinates as a color.
+	 * @param w horizontal resolution
+	 * @param h vertical resolution
+	 * @param writeDepth true to write the depth of each fragment, false to only write its color,
+	 * 		so every fragment is shaded no matter how often the triangles are rendered
+	 * @return {@link Shader} for vertices of 5 floats
+	 */
+	static Shader shader(int w, int h, boolean writeDepth)
+	{
+		Shader shader = new Shader(w, h, new ShaderProperty(5, 2, 3));
+		shader.setVertexShader((in, out) -> {
+			out.x = in[0];
+			out.y = in[1];
+			out.z = in[2];
+			out.attributes[0] = in[3];
+			out.attributes[1] = in[4];
+		});
+		if(writeDepth)
+			shader.setFragmentShader((f) -> f.write(((int)(f.attributes[0] * 255) << 8) | (int)(f.attributes[1] * 255)));
+		else
+		{
+			shader.setFragmentShader((f) -> {
+				f.frame[f.index] = ((int)(f.attributes[0] * 255) << 8) | (int)(f.attributes[1] * 255);
+			});
+		}
+		return shader;
+	}
+	
+	/**
+	 * Counts the pixels covered by a scene, by rendering it once with a {@link Profiler}.
+	 * @param triangles triangles of the scene
+	 * @return number of pixels covered, counting each triangle that covers a pixel
+	 */
+	static long pixels(List<float[][]> triangles)
+	{
+		Shader shader = shader(WIDTH, HEIGHT, false);
+		Profiler profiler = new Profiler();
+		shader.setProfiler(profiler);
+		for(float[][] t : triangles)
+			shader.render(t);
+		shader.flush();
+		profiler.frame();
+		return profiler.pixels();
+	}
+	
+	/**
+	 * Creates a vertex array for a triangle, mapping the texture across its bounds.
+	 * @return vertex array with the position and texture coordinates of each vertex
+	 */
+	static float[][] triangle(float x0, float y0, float x1, float y1, float x2, float y2)
+	{
+		return new float[][] {
+			{ x0, y0, 0.5f, 0.0f, 0.0f },
+			{ x1, y1, 0.5f, 1.0f, 0.0f },
+			{ x2, y2, 0.5f, 1.0f, 1.0f }
+		};
+	}
+	
+	/**
+	 * Creates an image filled with random colors.
+	 * @param w width of the image
+	 * @param h height of the image
+	 * @return {@link BufferedImage} with random contents
+	 */
+	static BufferedImage image(int w, int h)
+	{
+		BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+		Random random = new Random(0);
+		for(int y = 0; y < h; y++)
+			for(int x = 0; x < w; x++)
+				image.setRGB(x, y, random.nextInt());
+		return image;
+	}
+}
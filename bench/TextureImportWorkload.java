@@ -0,0 +1,69 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Benchmarks creating a {@link Texture} from a 2000x1500 {@link BufferedImage}, which is resized to
+ * 2048x2048, in each format and with the bilinear filter. A JPEG of the image is also decoded and
+ * imported, which is compared to loading the same JPEG through a {@link TextureCache} that already
+ * holds it, which maps the cached texture file.
+ * <p>
+ * Measured by bench.TextureImportBenchmark, which passes how the texture is created as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class TextureImportWorkload implements bench.Workload
+{
+	/** How the texture is created */
+	private String source;
+	
+	/** Image that is imported */
+	private BufferedImage image;
+	/** Folder holding the JPEG and the cached texture */
+	private File dir;
+	/** JPEG of the image */
+	private File jpeg;
+	/** Cache that already holds the texture of the JPEG */
+	private TextureCache cache;
+	
+	@Override
+	public void setup(String... params) throws IOException
+	{
+		source = params[0];
+		image = Scenes.image(2000, 1500);
+		dir = Files.createTempDirectory("benchmark").toFile();
+		jpeg = new File(dir, "image.jpg");
+		ImageIO.write(image, "jpg", jpeg);
+		cache = new TextureCache(dir);
+		cache.load(jpeg);
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		for(File file : dir.listFiles())
+			file.delete();
+		dir.delete();
+	}
+	
+	@Override
+	public Object run() throws IOException
+	{
+		switch(source)
+		{
+		case "float":
+			return new Texture(image);
+		case "packed":
+			return new Texture(image, Texture.Format.PACKED);
+		case "bilinear":
+			return new Texture(image, Texture.Format.PACKED, Texture.Filter.BILINEAR);
+		case "jpeg-decode":
+			return new Texture(ImageIO.read(jpeg), Texture.Format.PACKED);
+		default:
+			return cache.load(jpeg);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Benchmarks sampling a texture, reported as the time per sample. Each case names the coordinates
+ * and the texture:
+ * <ul>
+ * <li>random, sequential: 2^20 coordinates spread randomly, or row by row over a 1024x1024 texture</li>
+ * <li>rotated: one texel per pixel along rows rotated by 30 degrees, over a 2048x2048 texture larger than the caches</li>
+ * <li>float, packed: 1024x1024 texture in each {@link Texture.Format}</li>
+ * <li>packed-lod4: the mipmap level used when each pixel covers 16 texels</li>
+ * <li>packed-2048, packed-morton, packed-2048-morton: 2048x2048 texture in each {@link Texture.Layout}</li>
+ * <li>mapped: the packed texture saved to a file and mapped</li>
+ * </ul>
+ * <p>
+ * Measured by bench.TextureBenchmark, which passes the case that is sampled as parameters.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class TextureWorkload implements bench.Workload
+{
+	/** Number of samples taken each invocation */
+	private static final int SAMPLES = 1 << 20;
+	
+	/** Coordinates and texture sampled */
+	private String sample;
+	
+	/** Texture that is sampled */
+	private Texture texture;
+	/** Pairs of texture coordinates */
+	private float[] uv;
+	/** File the mapped texture is saved to, or null */
+	private File file;
+	
+	@Override
+	public void setup(String... params) throws IOException
+	{
+		sample = params[0];
+		String[] parts = sample.split("/");
+		uv = new float[SAMPLES * 2];
+		Random random = new Random(0);
+		for(int i = 0; i < SAMPLES; i++)
+		{
+			switch(parts[0])
+			{
+			case "random":
+				uv[i * 2] = random.nextFloat();
+				uv[i * 2 + 1] = random.nextFloat();
+				break;
+			case "sequential":
+				uv[i * 2] = (i & 1023) / 1024.0f;
+				uv[i * 2 + 1] = (i >> 10) / 1024.0f;
+				break;
+			default:
+				float cos = (float)Math.cos(Math.PI / 6) / 2048;
+				float sin = (float)Math.sin(Math.PI / 6) / 2048;
+				int x = i & 1023, y = i >> 10;
+				uv[i * 2] = 0.25f + x * cos - y * sin;
+				uv[i * 2 + 1] = 0.25f + x * sin + y * cos;
+			}
+		}
+		
+		boolean large = parts[0].equals("rotated") || parts[1].contains("2048");
+		BufferedImage image = Scenes.image(large ? 2048 : 1024, large ? 2048 : 1024);
+		Texture.Layout layout = parts[1].endsWith("morton") ? Texture.Layout.MORTON : Texture.Layout.LINEAR;
+		if(parts[1].equals("float"))
+			texture = new Texture(image);
+		else
+			texture = new Texture(image, Texture.Format.PACKED, Texture.Filter.NEAREST, layout);
+		
+		if(parts[1].equals("packed-lod4"))
+		{
+			// Minified by 16x, as if each pixel covered 16 texels
+			texture = texture.level(texture.lod(16.0f / 1024, 0, 0, 16.0f / 1024));
+		}
+		else if(parts[1].equals("mapped"))
+		{
+			file = File.createTempFile("benchmark", ".tex");
+			texture.save(file);
+			texture = Texture.map(file);
+		}
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		if(file != null)
+			file.delete();
+	}
+	
+	@Override
+	public Object run()
+	{
+		Texture texture = this.texture;
+		float[] uv = this.uv;
+		if(texture.format == Texture.Format.MAPPED)
+		{
+			int sum = 0;
+			for(int i = 0; i < uv.length; i += 2)
+				sum += Texture.red(texture.mapped.get(texture.texture(uv[i], uv[i + 1])));
+			return sum;
+		}
+		if(texture.format == Texture.Format.PACKED)
+		{
+			int sum = 0;
+			for(int i = 0; i < uv.length; i += 2)
+				sum += Texture.red(texture.texels[texture.texture(uv[i], uv[i + 1])]);
+			return sum;
+		}
+		
+		float sum = 0.0f;
+		for(int i = 0; i < uv.length; i += 2)
+			sum += texture.buffer[texture.texture(uv[i], uv[i + 1]) | Texture.R];
+		return sum;
+	}
+}
@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ClearWorkload: clearing the depth and frame buffers at several resolutions, either by writing
+ * every pixel or by starting a new depth generation. The pixels of the buffers are counted, so the
+ * resolutions can be compared by their time per pixel.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ClearBenchmark
+{
+	/** Resolution of the buffers */
+	@Param({ "1280x720", "1920x1080", "3840x2160" })
+	public String resolution;
+	/** How the buffers are cleared */
+	@Param({ "full", "lazy" })
+	public String clear;
+	
+	/** Workload of the default package that is measured */
+	private Workload workload;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		workload = Workload.load("ClearWorkload", resolution, clear);
+	}
+	
+	@TearDown
+	public void tearDown()
+	{
+		workload.tearDown();
+	}
+	
+	@Benchmark
+	public Object clear(Pixels pixels) throws Exception
+	{
+		pixels.pixels += workload.pixels();
+		return workload.run();
+	}
+}
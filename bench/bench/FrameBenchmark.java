@@ -0,0 +1,58 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures FrameWorkload: rendering and presenting whole frames, with a 4 ms wait for the display,
+ * either on the rendering thread or overlapped with rendering through a FramePipeline. The pixels of
+ * each frame are counted.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FrameBenchmark
+{
+	/** How frames are presented */
+	@Param({ "sequential", "pipelined" })
+	public String pipeline;
+	
+	/** Workload of the default package that is measured */
+	private Workload workload;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		workload = Workload.load("FrameWorkload", pipeline);
+	}
+	
+	@TearDown
+	public void tearDown()
+	{
+		workload.tearDown();
+	}
+	
+	@Benchmark
+	public Object frame(Pixels pixels) throws Exception
+	{
+		pixels.pixels += workload.pixels();
+		return workload.run();
+	}
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures MeshImportWorkload: loading a mesh of 320000 triangles from an OBJ file, with a baseline
+ * parser reading line by line, and by mapping a mesh file.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MeshImportBenchmark
+{
+	/** How the mesh is loaded */
+	@Param({ "obj", "obj-reader", "binary" })
+	public String format;
+	
+	/** Workload of the default package that is measured */
+	private Workload workload;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		workload = Workload.load("MeshImportWorkload", format);
+	}
+	
+	@TearDown
+	public void tearDown()
+	{
+		workload.tearDown();
+	}
+	
+	@Benchmark
+	public Object load() throws Exception
+	{
+		return workload.run();
+	}
+}
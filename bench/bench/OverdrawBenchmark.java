@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures OverdrawWorkload: rendering 16 layers of screen-filling quads with a costly fragment shader,
+ * in both orders, with each way of rejecting or deferring the hidden layers. The pixels of every layer are
+ * counted, hidden or not.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OverdrawBenchmark
+{
+	/** Order the layers are drawn in */
+	@Param({ "front-to-back", "back-to-front" })
+	public String order;
+	/** Pipeline mode */
+	@Param({ "graphics2d", "graphics2d-hiz", "serial", "serial-hiz", "deferred", "commands", "commands-hiz" })
+	public String mode;
+	
+	/** Workload of the default package that is measured */
+	private Workload workload;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		workload = Workload.load("OverdrawWorkload", order, mode);
+	}
+	
+	@TearDown
+	public void tearDown()
+	{
+		workload.tearDown();
+	}
+	
+	@Benchmark
+	public Object render(Pixels pixels) throws Exception
+	{
+		pixels.pixels += workload.pixels();
+		return workload.run();
+	}
+}
@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the pixels covered by the operations of a benchmark. JMH reports the counter as a secondary result
+ * named after the benchmark with ":pixels", next to the time of each operation. It is the time per pixel,
+ * even though JMH labels its unit as per operation, and can be compared between resolutions and scenes.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Pixels
+{
+	/** Number of pixels covered during the current iteration */
+	public long pixels;
+	
+	@Setup(Level.Iteration)
+	public void reset()
+	{
+		pixels = 0;
+	}
+}
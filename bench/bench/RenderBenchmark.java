@@ -0,0 +1,62 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures RenderWorkload: rendering tiny, screen-filling and sliver triangles at 1920x1080 in each
+ * pipeline mode. Each combination runs in its own fork, so the JIT profile of one mode doesn't slow down the next.
+ * The pixels covered by the triangles are counted, so the scenes can be compared by their time per pixel.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark
+{
+	/** Size of the triangles, as a scene of Scenes */
+	@Param({ "tiny", "fill", "sliver" })
+	public String triangles;
+	/** Pipeline mode */
+	@Param({ "graphics2d", "present", "serial", "span", "parallel",
+			"graphics2d-shared", "serial-shared", "serial-profiled" })
+	public String mode;
+	
+	/** Workload of the default package that is measured */
+	private Workload workload;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		workload = Workload.load("RenderWorkload", triangles, mode);
+	}
+	
+	@TearDown
+	public void tearDown()
+	{
+		workload.tearDown();
+	}
+	
+	@Benchmark
+	public Object render(Pixels pixels) throws Exception
+	{
+		pixels.pixels += workload.pixels();
+		return workload.run();
+	}
+}
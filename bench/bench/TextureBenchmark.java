@@ -0,0 +1,62 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures TextureWorkload: sampling textures of each format and layout with random, sequential and
+ * rotated coordinates. Each invocation takes {@value #SAMPLES} samples, so the time is per sample.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TextureBenchmark
+{
+	/** Number of samples taken each invocation, which must match TextureWorkload */
+	private static final int SAMPLES = 1 << 20;
+	
+	/** Coordinates and texture sampled */
+	@Param({ "random/float", "sequential/float", "random/packed", "sequential/packed", "random/packed-lod4",
+			"rotated/packed", "rotated/packed-morton", "random/packed-2048", "random/packed-2048-morton", "random/mapped" })
+	public String sample;
+	
+	/** Workload of the default package that is measured */
+	private Workload workload;
+	
+	@Setup
+	public void setup() throws Exception
+	{
+		workload = Workload.load("TextureWorkload", sample);
+	}
+	
+	@TearDown
+	public void tearDown()
+	{
+		workload.tearDown();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(SAMPLES)
+	public Object sample() throws Exception
+	{
+		return workload.run();
+	}
+}
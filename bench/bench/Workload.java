@@ -0,0 +1,58 @@
+package bench;
+
+/**
+ * Work measured by one of the benchmarks. The renderer is in the default package, which classes in a
+ * package can't refer to, while JMH only accepts benchmarks in a package. Each benchmark of this package
+ * therefore only holds the parameters and the settings of JMH, and loads its workload, written in the
+ * default package, by name. Each fork of a benchmark only ever loads one workload, so the calls through
+ * this interface stay monomorphic and are inlined.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public interface Workload
+{
+	/**
+	 * Prepares the workload before it is measured.
+	 * @param params parameters of the benchmark, in the order the workload documents
+	 * @throws Exception if the workload can't be prepared
+	 */
+	public void setup(String... params) throws Exception;
+	
+	/**
+	 * Runs one operation of the workload.
+	 * @return result of the operation, which the benchmark hands to JMH so it can't be optimized away
+	 * @throws Exception if the operation fails
+	 */
+	public Object run() throws Exception;
+	
+	/**
+	 * Returns the number of pixels each operation covers, which the benchmarks that count {@link Pixels}
+	 * report the time per pixel of.
+	 * @return number of pixels covered by an operation
+	 */
+	public default long pixels()
+	{
+		return 0;
+	}
+	
+	/**
+	 * Releases what {@link #setup(String...)} created, such as threads and temporary files.
+	 */
+	public default void tearDown()
+	{
+	}
+	
+	/**
+	 * Creates a workload of the default package and prepares it.
+	 * @param name name of the class of the workload
+	 * @param params parameters of the benchmark
+	 * @return prepared workload
+	 * @throws Exception if the workload can't be created or prepared
+	 */
+	public static Workload load(String name, String... params) throws Exception
+	{
+		Workload workload = (Workload)Class.forName(name).getDeclaredConstructor().newInstance();
+		workload.setup(params);
+		return workload;
+	}
+}
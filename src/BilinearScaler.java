@@ -0,0 +1,140 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.stream.IntStream;
+
+/**
+ * This class stretches frames of a {@link Shader} over a larger image with bilinear filtering, for
+ * {@link Shader.Upscale#BILINEAR}. Each source row is first stretched horizontally once, and each
+ * output row then blends the two stretched rows around it, so the columns are only looked up once per
+ * source row instead of once per output row. Colors are blended with weights out of 256, the same way
+ * as by the bilinear filter of {@link Texture.Filter#BILINEAR}.
+ * <p>
+ * The output is split into bands of rows that are stretched in parallel. The image, the columns and
+ * the rows of each band are kept between calls, so stretching frames of the same size doesn't allocate.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+class BilinearScaler
+{
+	/** Number of output rows in each band */
+	private static final int BAND = Shader.TILE_SIZE;
+	
+	/** Image the frames are stretched into */
+	private BufferedImage target;
+	/** Width of the frames that the columns were found for */
+	private int sourceWidth;
+	/** First source column blended into each output column */
+	private int[] left;
+	/** Second source column blended into each output column */
+	private int[] right;
+	/** Weight of the second source column of each output column, out of 256 */
+	private int[] weights;
+	/** Two stretched source rows for each band */
+	private int[][] rows;
+	
+	/**
+	 * Returns whether an image can be stretched, which is the case for the frames of a {@link Shader}
+	 * and for other RGB images whose pixels are stored in rows as long as their width.
+	 * @param image image to stretch
+	 * @return true if the image can be passed to {@link #stretch(BufferedImage, int, int)}
+	 */
+	static boolean accepts(BufferedImage image)
+	{
+		WritableRaster raster = image.getRaster();
+		return image.getType() == BufferedImage.TYPE_INT_RGB
+				&& raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+				&& ((SinglePixelPackedSampleModel)raster.getSampleModel()).getScanlineStride() == image.getWidth();
+	}
+	
+	/**
+	 * Stretches a frame over an image of the given size.
+	 * @param frame image accepted by {@link #accepts(BufferedImage)}
+	 * @param w width of the output
+	 * @param h height of the output
+	 * @return stretched image, which is reused by the next call
+	 */
+	BufferedImage stretch(BufferedImage frame, int w, int h)
+	{
+		int sw = frame.getWidth();
+		int sh = frame.getHeight();
+		if(target == null || target.getWidth() != w || target.getHeight() != h)
+		{
+			target = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+			left = new int[w];
+			right = new int[w];
+			weights = new int[w];
+			rows = new int[(h + BAND - 1) / BAND * 2][w];
+			sourceWidth = 0;
+		}
+		if(sourceWidth != sw)
+		{
+			sourceWidth = sw;
+			for(int x = 0; x < w; x++)
+			{
+				float p = (x + 0.5f) * sw / w - 0.5f;
+				int p0 = (int)Math.floor(p);
+				weights[x] = Math.round((p - p0) * 256);
+				left[x] = Math.max(0, p0);
+				right[x] = Math.max(0, Math.min(sw - 1, p0 + 1));
+			}
+		}
+		
+		int[] source = ((DataBufferInt)frame.getRaster().getDataBuffer()).getData();
+		int[] output = ((DataBufferInt)target.getRaster().getDataBuffer()).getData();
+		IntStream.range(0, (h + BAND - 1) / BAND).parallel().forEach((band) -> {
+			int[] upper = rows[band * 2];
+			int[] lower = rows[band * 2 + 1];
+			int upperRow = -1, lowerRow = -1;
+			for(int y = band * BAND, end = Math.min(h, y + BAND); y < end; y++)
+			{
+				float p = (y + 0.5f) * sh / h - 0.5f;
+				int p0 = (int)Math.floor(p);
+				int weight = Math.round((p - p0) * 256);
+				int row0 = Math.max(0, p0);
+				int row1 = Math.max(0, Math.min(sh - 1, p0 + 1));
+				
+				// Moving down a source row, the lower row becomes the upper one
+				if(upperRow != row0)
+				{
+					if(lowerRow == row0)
+					{
+						int[] swap = upper;
+						upper = lower;
+						lower = swap;
+						lowerRow = -1;
+					}
+					else
+						stretchRow(source, row0 * sw, upper);
+					upperRow = row0;
+				}
+				if(lowerRow != row1)
+				{
+					stretchRow(source, row1 * sw, lower);
+					lowerRow = row1;
+				}
+				
+				int offset = y * w;
+				if(weight == 0)
+					System.arraycopy(upper, 0, output, offset, w);
+				else
+					for(int x = 0; x < w; x++)
+						output[offset + x] = Texture.Filter.blend(upper[x], lower[x], weight);
+			}
+		});
+		return target;
+	}
+	
+	/**
+	 * Stretches a source row horizontally over an output row.
+	 * @param source pixels of the frame
+	 * @param start index of the first pixel of the source row
+	 * @param row output row
+	 */
+	private void stretchRow(int[] source, int start, int[] row)
+	{
+		for(int x = 0; x < row.length; x++)
+			row[x] = Texture.Filter.blend(source[start + left[x]], source[start + right[x]], weights[x]);
+	}
+}
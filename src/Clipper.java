@@ -0,0 +1,166 @@
+/**
+ * This class assembles the result of the vertex shader into triangles that can be rasterized.
+ * Triangles that face away, have no area, hold NaN or infinite coordinates or lie entirely outside the screen
+ * or depth range are dropped. Triangles that cross the near or far plane, or reach past the guard band
+ * around the screen, are clipped into a convex polygon whose vertices are interpolated along the cut edges.
+ * <p>
+ * Triangles that only cross the edges of the screen within the guard band are kept whole, since the
+ * rasterizers already limit themselves to the pixels of the screen. Only depths from 0 to 1 are kept.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+class Clipper
+{
+	/** Distance past each edge of the screen, in screen sizes, that triangles may reach without being clipped */
+	static final float GUARD_BAND = 1.0f;
+	/** Number of planes that triangles are clipped against */
+	private static final int PLANES = 6;
+	/** Largest number of vertices a triangle can have after being clipped by every plane */
+	private static final int MAX_VERTICES = 3 + PLANES;
+	
+	/** Vertices of the polygon left by the last call to {@link #assemble}, which may be the given triangle */
+	Vertex[] polygon;
+	/** Polygons that are alternately clipped into */
+	private final Vertex[][] buffers = new Vertex[2][MAX_VERTICES];
+	
+	/**
+	 * Creates a {@link Clipper} for the given vertex structure.
+	 * @param property {@link ShaderProperty} that defines the vertex structure
+	 */
+	Clipper(ShaderProperty property)
+	{
+		for(Vertex[] buffer : buffers)
+			for(int i = 0; i < MAX_VERTICES; i++)
+				buffer[i] = new Vertex(property);
+	}
+	
+	/**
+	 * Culls and clips a triangle. The result is left in {@link #polygon}, to be drawn as a fan of triangles.
+	 * @param vertices result of the vertex shader for each vertex of the triangle
+	 * @param width horizontal resolution of the screen
+	 * @param height vertical resolution of the screen
+	 * @param cull winding of the triangles that are dropped
+	 * @return number of vertices of the clipped polygon, or 0 if the triangle was dropped
+	 */
+	int assemble(Vertex[] vertices, int width, int height, Shader.Cull cull)
+	{
+		Vertex v0 = vertices[0], v1 = vertices[1], v2 = vertices[2];
+		if(!Float.isFinite(v0.x + v0.y + v0.z + v1.x + v1.y + v1.z + v2.x + v2.y + v2.z))
+			return 0;
+		
+		// Winding and area on screen, where a positive area goes clockwise since y points down
+		double area = ((double)v1.x - v0.x) * ((double)v2.y - v0.y) * width * height
+					- ((double)v1.y - v0.y) * ((double)v2.x - v0.x) * width * height;
+		if(area == 0.0)
+			return 0;
+		if(cull == Shader.Cull.CLOCKWISE && area > 0.0 || cull == Shader.Cull.COUNTER_CLOCKWISE && area < 0.0)
+			return 0;
+		
+		// Drop triangles that are entirely off the screen or outside the depth range
+		float minX = Math.min(v0.x, Math.min(v1.x, v2.x)), maxX = Math.max(v0.x, Math.max(v1.x, v2.x));
+		float minY = Math.min(v0.y, Math.min(v1.y, v2.y)), maxY = Math.max(v0.y, Math.max(v1.y, v2.y));
+		float minZ = Math.min(v0.z, Math.min(v1.z, v2.z)), maxZ = Math.max(v0.z, Math.max(v1.z, v2.z));
+		if(maxX < 0 || minX > 1 || maxY < 0 || minY > 1 || maxZ < 0 || minZ > 1)
+			return 0;
+		
+		// Only the planes that the triangle crosses need to be clipped against
+		int outside = (maxZ > 1 ? 1 : 0) | (minZ < 0 ? 2 : 0)
+					| (minX < -GUARD_BAND ? 4 : 0) | (maxX > 1 + GUARD_BAND ? 8 : 0)
+					| (minY < -GUARD_BAND ? 16 : 0) | (maxY > 1 + GUARD_BAND ? 32 : 0);
+		if(outside == 0)
+		{
+			polygon = vertices;
+			return 3;
+		}
+		
+		int count = 3;
+		Vertex[] in = vertices;
+		for(int p = 0, next = 0; p < PLANES && count > 0; p++)
+		{
+			if((outside & (1 << p)) == 0)
+				continue;
+			Vertex[] out = buffers[next];
+			count = clip(in, count, out, p);
+			in = out;
+			next ^= 1;
+		}
+		polygon = in;
+		return count < 3 ? 0 : count;
+	}
+	
+	/**
+	 * Clips a convex polygon against a plane, keeping the part on the inside of it.
+	 * @param in vertices of the polygon
+	 * @param count number of vertices of the polygon
+	 * @param out space for the vertices of the clipped polygon, distinct from the input
+	 * @param plane index of the plane
+	 * @return number of vertices of the clipped polygon
+	 */
+	private static int clip(Vertex[] in, int count, Vertex[] out, int plane)
+	{
+		int n = 0;
+		Vertex a = in[count - 1];
+		float da = distance(a, plane);
+		for(int i = 0; i < count; i++)
+		{
+			Vertex b = in[i];
+			float db = distance(b, plane);
+			if(da >= 0 != db >= 0)
+				lerp(a, b, da / (da - db), out[n++]);
+			if(db >= 0)
+				copy(b, out[n++]);
+			a = b;
+			da = db;
+		}
+		return n;
+	}
+	
+	/**
+	 * Returns how far a vertex is on the inside of a plane.
+	 * The planes are the near and far depths, then the left, right, top and bottom of the guard band.
+	 * @param v vertex
+	 * @param plane index of the plane
+	 * @return signed distance, negative when the vertex is outside
+	 */
+	private static float distance(Vertex v, int plane)
+	{
+		switch(plane)
+		{
+			case 0: return 1.0f - v.z;
+			case 1: return v.z;
+			case 2: return v.x + GUARD_BAND;
+			case 3: return 1.0f + GUARD_BAND - v.x;
+			case 4: return v.y + GUARD_BAND;
+			default: return 1.0f + GUARD_BAND - v.y;
+		}
+	}
+	
+	/**
+	 * Sets a vertex to a point along the edge between two vertices.
+	 * @param a first vertex of the edge
+	 * @param b second vertex of the edge
+	 * @param t position along the edge, from 0 at a to 1 at b
+	 * @param out vertex that is set
+	 */
+	private static void lerp(Vertex a, Vertex b, float t, Vertex out)
+	{
+		out.x = a.x + (b.x - a.x) * t;
+		out.y = a.y + (b.y - a.y) * t;
+		out.z = a.z + (b.z - a.z) * t;
+		for(int i = 0; i < out.attributes.length; i++)
+			out.attributes[i] = a.attributes[i] + (b.attributes[i] - a.attributes[i]) * t;
+	}
+	
+	/**
+	 * Copies a vertex.
+	 * @param v vertex that is copied
+	 * @param out vertex that is set
+	 */
+	private static void copy(Vertex v, Vertex out)
+	{
+		out.x = v.x;
+		out.y = v.y;
+		out.z = v.z;
+		System.arraycopy(v.attributes, 0, out.attributes, 0, out.attributes.length);
+	}
+}
@@ -0,0 +1,305 @@
+import java.awt.Graphics2D;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * This class records draws, texture bindings and clears, and submits them to a {@link Shader} later.
+ * A command buffer can be recorded once and submitted every frame. Draws keep references to their
+ * vertex arrays instead of copying them, so vertices that change between frames are read as they are
+ * at the time of the submission, and submitting doesn't allocate anything.
+ * <p>
+ * Between clears, draws are submitted front to back, so the depth test and the hierarchical depth
+ * buffer reject as much hidden geometry as possible. Each draw is sorted by the closest depth it had
+ * during the last submission, split into {@link #DEPTH_BUCKETS} ranges, and draws within a range are
+ * grouped by their {@link Texture}. Draws recorded before the first submission are only grouped by texture.
+ * Draws that depend on the order they are drawn in, such as blended ones, should be recorded after
+ * {@link #setSorted(boolean)} is turned off, which submits them in order and stops draws from being
+ * moved across them.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class CommandBuffer
+{
+	/** Number of ranges of depths that draws are sorted into, front to back */
+	public static final int DEPTH_BUCKETS = 256;
+	
+	/** Command that calls {@link Shader#clear()} */
+	private static final int CLEAR = 0;
+	/** Command that draws a single triangle */
+	private static final int TRIANGLE = 1;
+	/** Command that draws an indexed vertex array */
+	private static final int ARRAY = 2;
+	/** Command that draws an indexed {@link VertexBuffer} */
+	private static final int BUFFER = 3;
+	
+	/** Number of recorded commands */
+	private int count;
+	/** Type of each command */
+	private int[] types = new int[16];
+	/** Vertices drawn by each command */
+	private Object[] vertices = new Object[16];
+	/** Indices drawn by each command, or null */
+	private Object[] indices = new Object[16];
+	/** How the indices of each command are assembled into triangles */
+	private Shader.Primitive[] primitives = new Shader.Primitive[16];
+	/** {@link Texture} bound for each command, or null for the texture the {@link Shader} had when submitted */
+	private Texture[] textures = new Texture[16];
+	/** Index of the texture of each command within {@link #bound} */
+	private int[] textureIds = new int[16];
+	/** Whether each command may be reordered */
+	private boolean[] sortable = new boolean[16];
+	/** Closest depth drawn by each command during the last submission, or NaN if it wasn't submitted yet */
+	private float[] depths = new float[16];
+	/** Commands in the order of the last submission, which is nearly sorted for the next one */
+	private int[] order = new int[16];
+	/** Sorting key of each position of {@link #order} */
+	private long[] keys = new long[16];
+	
+	/** Distinct textures that were bound */
+	private Texture[] bound = new Texture[4];
+	/** Number of distinct textures that were bound */
+	private int boundCount;
+	/** {@link Texture} bound for the next draws */
+	private Texture texture;
+	/** Index of {@link #texture} within {@link #bound} */
+	private int textureId;
+	/** Whether the next draws may be reordered */
+	private boolean sorted = true;
+	
+	/**
+	 * Removes every command, so the buffer can be recorded again. The space of the commands is kept.
+	 */
+	public void reset()
+	{
+		Arrays.fill(vertices, 0, count, null);
+		Arrays.fill(indices, 0, count, null);
+		Arrays.fill(textures, 0, count, null);
+		Arrays.fill(bound, 0, boundCount, null);
+		count = 0;
+		boundCount = 0;
+		texture = null;
+		textureId = 0;
+		sorted = true;
+	}
+	
+	/**
+	 * Binds a {@link Texture} as {@link Shader#texture0} for the draws recorded after it.
+	 * @param texture texture used by the next draws
+	 */
+	public void bind(Texture texture)
+	{
+		this.texture = texture;
+		for(textureId = 0; textureId < boundCount; textureId++)
+			if(bound[textureId] == texture)
+				return;
+		if(boundCount == bound.length)
+			bound = Arrays.copyOf(bound, boundCount * 2);
+		bound[boundCount++] = texture;
+	}
+	
+	/**
+	 * Sets whether the draws recorded next may be reordered. Draws that can't be reordered are submitted
+	 * in the order they were recorded, and no other draw is moved across them.
+	 * @param sorted true to sort the next draws, false to keep their order
+	 */
+	public void setSorted(boolean sorted)
+	{
+		this.sorted = sorted;
+	}
+	
+	/**
+	 * Records a call to {@link Shader#clear()}. Draws are never moved across a clear.
+	 */
+	public void clear()
+	{
+		add(CLEAR, null, null, null);
+	}
+	
+	/**
+	 * Records a triangle, drawn like {@link Shader#render(float[][])}.
+	 * @param vertexIn array of vertices, read when the buffer is submitted
+	 */
+	public void draw(float[][] vertexIn)
+	{
+		add(TRIANGLE, vertexIn, null, null);
+	}
+	
+	/**
+	 * Records an indexed vertex array, drawn like {@link Shader#render(float[], int[], Shader.Primitive)}.
+	 * @param vertices interleaved vertices, read when the buffer is submitted
+	 * @param indices index of the vertex used for each corner of the triangles
+	 * @param primitive how the indices are assembled into triangles
+	 */
+	public void draw(float[] vertices, int[] indices, Shader.Primitive primitive)
+	{
+		add(ARRAY, vertices, indices, primitive);
+	}
+	
+	/**
+	 * Records an indexed {@link VertexBuffer}, drawn like {@link Shader#render(VertexBuffer, IntBuffer, Shader.Primitive)}.
+	 * @param vertices vertices, read when the buffer is submitted
+	 * @param indices index of the vertex used for each corner of the triangles, from the position to the limit
+	 * @param primitive how the indices are assembled into triangles
+	 */
+	public void draw(VertexBuffer vertices, IntBuffer indices, Shader.Primitive primitive)
+	{
+		add(BUFFER, vertices, indices, primitive);
+	}
+	
+	/**
+	 * Submits the commands to the built-in rasterizer of a {@link Shader}, then flushes it.
+	 * @param shader {@link Shader} that draws the commands
+	 */
+	public void submit(Shader shader)
+	{
+		submit(shader, null);
+	}
+	
+	/**
+	 * Submits the commands to a {@link Shader}, then flushes it. Draws recorded before any texture was bound
+	 * use the {@link Shader#texture0} of the {@link Shader} at the time of the submission, even when they are 
+	 * sorted after draws with another texture, and it is bound again once the commands are done.
+	 * @param shader {@link Shader} that draws the commands
+	 * @param gl reference to {@link Graphics2D}, or null to use the built-in rasterizer
+	 */
+	public void submit(Shader shader, Graphics2D gl)
+	{
+		Texture texture = shader.texture0;
+		int start = 0;
+		for(int c = 0; c <= count; c++)
+		{
+			// Clears and draws that keep their order end the run of draws that is sorted
+			if(c == count || !sortable[c])
+			{
+				sort(start, c);
+				for(int i = start; i < c; i++)
+					execute(shader, gl, order[i], texture);
+				if(c < count)
+					execute(shader, gl, c, texture);
+				start = c + 1;
+			}
+		}
+		shader.flush();
+		shader.texture0 = texture;
+	}
+	
+	/**
+	 * Sorts a run of reorderable commands front to back, then by texture.
+	 * The order of the last submission is sorted again, which only moves the commands whose depth changed.
+	 * @param from first position of the run
+	 * @param to position after the last command of the run
+	 */
+	private void sort(int from, int to)
+	{
+		for(int i = from; i < to; i++)
+		{
+			int c = order[i];
+			float z = depths[c];
+			
+			// Commands that weren't drawn yet or drew nothing go last
+			int bucket = DEPTH_BUCKETS - 1;
+			if(z >= 0.0f)
+				bucket = (int)((1.0f - Math.min(1.0f, z)) * (DEPTH_BUCKETS - 1));
+			keys[i] = ((long)bucket << 48) | ((long)(textureIds[c] & 0xFFFF) << 32) | c;
+		}
+		
+		// Insertion sort is linear when little changed, otherwise fall back to a full sort
+		long moves = 0;
+		for(int i = from + 1; i < to && moves <= 16L * (to - from); i++)
+		{
+			long key = keys[i];
+			int j = i - 1;
+			for(; j >= from && keys[j] > key; j--, moves++)
+				keys[j + 1] = keys[j];
+			keys[j + 1] = key;
+		}
+		if(moves > 16L * (to - from))
+			Arrays.sort(keys, from, to);
+		
+		for(int i = from; i < to; i++)
+			order[i] = (int)keys[i];
+	}
+	
+	/**
+	 * Executes a single command, and records the closest depth it drew.
+	 * @param shader {@link Shader} that draws the command
+	 * @param gl reference to {@link Graphics2D}, or null to use the built-in rasterizer
+	 * @param c index of the command
+	 * @param texture texture of the {@link Shader} when the commands were submitted
+	 */
+	private void execute(Shader shader, Graphics2D gl, int c, Texture texture)
+	{
+		if(types[c] == CLEAR)
+		{
+			shader.clear();
+			return;
+		}
+		
+		// Binned triangles are shaded with the texture bound when they are flushed
+		Texture bound = textures[c] != null ? textures[c] : texture;
+		if(shader.texture0 != bound)
+		{
+			shader.flush();
+			shader.texture0 = bound;
+		}
+		
+		shader.resetNearest();
+		switch(types[c])
+		{
+			case TRIANGLE:
+				if(gl != null)
+					shader.render(gl, (float[][])vertices[c]);
+				else
+					shader.render((float[][])vertices[c]);
+				break;
+			case ARRAY:
+				if(gl != null)
+					shader.render(gl, (float[])vertices[c], (int[])indices[c], primitives[c]);
+				else
+					shader.render((float[])vertices[c], (int[])indices[c], primitives[c]);
+				break;
+			default:
+				if(gl != null)
+					shader.render(gl, (VertexBuffer)vertices[c], (IntBuffer)indices[c], primitives[c]);
+				else
+					shader.render((VertexBuffer)vertices[c], (IntBuffer)indices[c], primitives[c]);
+				break;
+		}
+		depths[c] = shader.nearest();
+	}
+	
+	/**
+	 * Records a command with the current texture.
+	 * @param type type of the command
+	 * @param vertexData vertices drawn by the command
+	 * @param indexData indices drawn by the command, or null
+	 * @param primitive how the indices are assembled into triangles, or null
+	 */
+	private void add(int type, Object vertexData, Object indexData, Shader.Primitive primitive)
+	{
+		if(count == types.length)
+		{
+			int size = count * 2;
+			types = Arrays.copyOf(types, size);
+			vertices = Arrays.copyOf(vertices, size);
+			indices = Arrays.copyOf(indices, size);
+			primitives = Arrays.copyOf(primitives, size);
+			textures = Arrays.copyOf(textures, size);
+			textureIds = Arrays.copyOf(textureIds, size);
+			sortable = Arrays.copyOf(sortable, size);
+			depths = Arrays.copyOf(depths, size);
+			order = Arrays.copyOf(order, size);
+			keys = Arrays.copyOf(keys, size);
+		}
+		types[count] = type;
+		vertices[count] = vertexData;
+		indices[count] = indexData;
+		primitives[count] = primitive;
+		textures[count] = texture;
+		textureIds[count] = texture == null ? 0 : textureId + 1;
+		sortable[count] = type != CLEAR && sorted;
+		depths[count] = Float.NaN;
+		order[count] = count;
+		count++;
+	}
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * This class keeps the lowest depth of every 8x8 block and every tile of a depth buffer, which lets
+ * the {@link Shader} reject whole triangles and blocks that are behind everything already drawn
+ * before testing any pixel. A fragment only passes the depth test when it is above the depth buffer,
+ * so the lowest depth of an area is all that is needed to know that nothing in it can be drawn.
+ * <p>
+ * Areas that were drawn into are marked as dirty and their lowest depth is only found again the next
+ * time it is needed. Since depths only grow between clears, a value that is out of date is always
+ * lower than the real one, so it can only cause fewer rejections, never wrong ones.
+ * <p>
+ * It isn't thread-safe. The {@link Shader} only uses it from one thread at a time, or from threads
+ * rasterizing different tiles, which never share a block or a tile.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+class DepthPyramid
+{
+	/** Number of bits of the width and height of a block */
+	static final int BLOCK_BITS = 3;
+	/** Width and height of a block in pixels */
+	static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+	/** Width and height of a tile in blocks */
+	static final int TILE_BLOCKS = Shader.TILE_SIZE / BLOCK_SIZE;
+	/** Number of bits of the width and height of a tile */
+	static final int TILE_BITS = Integer.numberOfTrailingZeros(Shader.TILE_SIZE);
+	
+	/** Depth buffer that the pyramid covers */
+	private float[] depth;
+	/** Horizontal resolution of the depth buffer */
+	private int width;
+	/** Vertical resolution of the depth buffer */
+	private int height;
+	
+	/** Number of blocks along the horizontal axis */
+	private int blocksX;
+	/** Number of blocks along the vertical axis */
+	private int blocksY;
+	/** Lowest depth of each block, which may hold more blocks than the depth buffer has */
+	private float[] blocks = new float[0];
+	/** Whether each block was drawn into since its lowest depth was found */
+	private boolean[] blockDirty = new boolean[0];
+	/** Number of tiles along the horizontal axis */
+	private int tilesX;
+	/** Lowest depth of each tile, which may hold more tiles than the depth buffer has */
+	private float[] tiles = new float[0];
+	/** Whether each tile was drawn into since its lowest depth was found */
+	private boolean[] tileDirty = new boolean[0];
+	
+	/**
+	 * Creates a {@link DepthPyramid} for a depth buffer.
+	 * @param depth depth buffer that the pyramid covers
+	 * @param width horizontal resolution of the depth buffer
+	 * @param height vertical resolution of the depth buffer
+	 */
+	DepthPyramid(float[] depth, int width, int height)
+	{
+		setResolution(depth, width, height);
+	}
+	
+	/**
+	 * Covers a depth buffer with another resolution. The areas are only allocated again when
+	 * there are more of them than before.
+	 * @param depth depth buffer that the pyramid covers
+	 * @param width horizontal resolution of the depth buffer
+	 * @param height vertical resolution of the depth buffer
+	 */
+	void setResolution(float[] depth, int width, int height)
+	{
+		this.depth = depth;
+		this.width = width;
+		this.height = height;
+		
+		blocksX = (width + BLOCK_SIZE - 1) >> BLOCK_BITS;
+		blocksY = (height + BLOCK_SIZE - 1) >> BLOCK_BITS;
+		if(blocks.length < blocksX * blocksY)
+		{
+			blocks = new float[blocksX * blocksY];
+			blockDirty = new boolean[blocks.length];
+		}
+		tilesX = (blocksX + TILE_BLOCKS - 1) / TILE_BLOCKS;
+		int tilesY = (blocksY + TILE_BLOCKS - 1) / TILE_BLOCKS;
+		if(tiles.length < tilesX * tilesY)
+		{
+			tiles = new float[tilesX * tilesY];
+			tileDirty = new boolean[tiles.length];
+		}
+		
+		// The depth buffer may already hold depths
+		invalidate(0, 0, width - 1, height - 1);
+	}
+	
+	/**
+	 * Sets the lowest depth of every area to 0, after the depth buffer was cleared.
+	 */
+	void reset()
+	{
+		Arrays.fill(blocks, 0.0f);
+		Arrays.fill(blockDirty, false);
+		Arrays.fill(tiles, 0.0f);
+		Arrays.fill(tileDirty, false);
+	}
+	
+	/**
+	 * Marks every block and tile that overlaps a rectangle of pixels as drawn into.
+	 * @param x0 first column of the rectangle
+	 * @param y0 first row of the rectangle
+	 * @param x1 last column of the rectangle
+	 * @param y1 last row of the rectangle
+	 */
+	void invalidate(int x0, int y0, int x1, int y1)
+	{
+		for(int by = y0 >> BLOCK_BITS; by <= y1 >> BLOCK_BITS; by++)
+			for(int bx = x0 >> BLOCK_BITS; bx <= x1 >> BLOCK_BITS; bx++)
+				blockDirty[bx + by * blocksX] = true;
+		
+		for(int ty = y0 >> TILE_BITS; ty <= y1 >> TILE_BITS; ty++)
+			for(int tx = x0 >> TILE_BITS; tx <= x1 >> TILE_BITS; tx++)
+				tileDirty[tx + ty * tilesX] = true;
+	}
+	
+	/**
+	 * Returns the lowest depth of a block, finding it again if the block was drawn into.
+	 * @param bx column of the block
+	 * @param by row of the block
+	 * @return lowest depth of the block
+	 */
+	float block(int bx, int by)
+	{
+		int b = bx + by * blocksX;
+		if(blockDirty[b])
+		{
+			// Cleared first, so a block drawn into while it is read is found again later
+			blockDirty[b] = false;
+			float min = Float.POSITIVE_INFINITY;
+			int x0 = bx << BLOCK_BITS, x1 = Math.min(width, x0 + BLOCK_SIZE);
+			int y0 = by << BLOCK_BITS, y1 = Math.min(height, y0 + BLOCK_SIZE);
+			for(int y = y0; y < y1; y++)
+			{
+				for(int i = x0 + y * width, end = x1 + y * width; i < end; i++)
+				{
+					float d = depth[i];
+					if(d < min)
+						min = d;
+				}
+			}
+			blocks[b] = min;
+		}
+		return blocks[b];
+	}
+	
+	/**
+	 * Returns the lowest depth of a tile, finding it again from its blocks if the tile was drawn into.
+	 * @param tx column of the tile
+	 * @param ty row of the tile
+	 * @return lowest depth of the tile
+	 */
+	float tile(int tx, int ty)
+	{
+		int t = tx + ty * tilesX;
+		if(tileDirty[t])
+		{
+			tileDirty[t] = false;
+			float min = Float.POSITIVE_INFINITY;
+			int bx0 = tx * TILE_BLOCKS, bx1 = Math.min(blocksX, bx0 + TILE_BLOCKS);
+			int by0 = ty * TILE_BLOCKS, by1 = Math.min(blocksY, by0 + TILE_BLOCKS);
+			for(int by = by0; by < by1; by++)
+			{
+				for(int bx = bx0; bx < bx1; bx++)
+				{
+					float d = block(bx, by);
+					if(d < min)
+						min = d;
+				}
+			}
+			tiles[t] = min;
+		}
+		return tiles[t];
+	}
+	
+	/**
+	 * Returns whether every pixel of a rectangle is at or above a depth, in which case nothing
+	 * at that depth or below can be drawn into the rectangle.
+	 * @param x0 first column of the rectangle
+	 * @param y0 first row of the rectangle
+	 * @param x1 last column of the rectangle
+	 * @param y1 last row of the rectangle
+	 * @param z highest depth that could be drawn
+	 * @return true if nothing at depth z or below can pass the depth test within the rectangle
+	 */
+	boolean occludes(int x0, int y0, int x1, int y1, float z)
+	{
+		for(int ty = y0 >> TILE_BITS; ty <= y1 >> TILE_BITS; ty++)
+			for(int tx = x0 >> TILE_BITS; tx <= x1 >> TILE_BITS; tx++)
+				if(tile(tx, ty) < z)
+					return false;
+		return true;
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * This class holds the state of a single fragment while it is being shaded.
+ * Each rasterizing thread owns its own {@link Fragment}, so a {@link FragmentShader}
+ * that only uses its {@link Fragment} can be invoked from several threads at once.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class Fragment 
+{
+	/** Index of the fragment within the frame and depth buffers */
+	public int index;
+	/** Interpolated depth of the fragment */
+	public float depth;
+	/** Interpolated values of the vertex data */
+	public final float[] attributes;
+	/** Change of each interpolated value per pixel along the horizontal axis, which must not be modified */
+	public float[] ddx;
+	/** Change of each interpolated value per pixel along the vertical axis, which must not be modified */
+	public float[] ddy;
+	/** Values of the vertex data at the start of the current row */
+	final float[] row;
+	/** {@link Span} used when shading whole runs of fragments */
+	final Span span;
+	
+	/** Color buffer that the fragment is written into */
+	public int[] frame;
+	/** Depth buffer that the fragment is written into */
+	public float[] depthBuffer;
+	
+	/**
+	 * Creates a {@link Fragment} for the given vertex structure.
+	 * @param property {@link ShaderProperty} that defines the vertex structure
+	 */
+	public Fragment(ShaderProperty property)
+	{
+		this(new float[property.outputSize]);
+	}
+	
+	/**
+	 * Creates a {@link Fragment} that interpolates into an existing array.
+	 * @param attributes array that holds the interpolated values
+	 */
+	Fragment(float[] attributes)
+	{
+		this.attributes = attributes;
+		row = new float[attributes.length];
+		span = new Span(attributes.length);
+	}
+	
+	/**
+	 * Writes the color and depth of the fragment into the buffers.
+	 * @param color RGB color of the fragment
+	 */
+	public void write(int color)
+	{
+		frame[index] = color;
+		depthBuffer[index] = depth;
+	}
+}
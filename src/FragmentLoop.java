@@ -0,0 +1,47 @@
+/**
+ * Loop that interpolates the vertex data along a row of pixels and passes each fragment to a {@link FragmentShader}.
+ * Each fragment shader gets its own copy of the loop from {@link SpecializedFragmentLoop#specialize}, so the JIT
+ * sees a single fragment shader at each call site and can inline it into the loop.
+ * <p>
+ * Implementations may be loaded by another class loader, so this interface and everything it uses is public.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public interface FragmentLoop
+{
+	/**
+	 * Shades a row of fragments, computing the vertex data of each pixel from the start of the row.
+	 * Each fragment receives {@code row[i] + fx * steps[i]} as its attributes and {@code zRow + fx * dzdx} as its depth.
+	 * @param fragment {@link Fragment} owned by the calling thread
+	 * @param shader {@link FragmentShader} applied to each fragment
+	 * @param row vertex data at the origin of the row
+	 * @param steps change of the vertex data per pixel
+	 * @param start index of the first pixel
+	 * @param count number of pixels
+	 * @param fx distance of the first pixel from the origin of the row
+	 * @param zRow depth at the origin of the row
+	 * @param dzdx change of the depth per pixel
+	 * @param test true to only shade fragments above {@link Fragment#depthBuffer}, false to shade every fragment
+	 * @return number of fragments shaded
+	 */
+	public int shadeRow(Fragment fragment, FragmentShader shader, float[] row, float[] steps,
+			int start, int count, float fx, float zRow, float dzdx, boolean test);
+	
+	/**
+	 * Shades a strip of fragments, stepping the vertex data from one pixel to the next.
+	 * The vertex data and depth are increased before each pixel, so they start one pixel before the strip.
+	 * Only fragments above {@link Fragment#depthBuffer} are shaded. Changes the fragment shader makes to its
+	 * attributes aren't guaranteed to carry over to the next fragment.
+	 * @param fragment {@link Fragment} owned by the calling thread
+	 * @param shader {@link FragmentShader} applied to each fragment
+	 * @param values vertex data one pixel before the strip
+	 * @param steps change of the vertex data per pixel
+	 * @param start index of the first pixel
+	 * @param count number of pixels
+	 * @param z depth one pixel before the strip
+	 * @param dz change of the depth per pixel
+	 * @return number of fragments shaded
+	 */
+	public int shadeStrip(Fragment fragment, FragmentShader shader, float[] values, float[] steps,
+			int start, int count, float z, float dz);
+}
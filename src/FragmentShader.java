@@ -0,0 +1,14 @@
+/**
+ * Fragment Shader that is applied for every rendered pixel.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@FunctionalInterface
+public interface FragmentShader 
+{
+	/**
+	 * Shades a single fragment that passed the depth test.
+	 * @param fragment {@link Fragment} that is being shaded
+	 */
+	public void shade(Fragment fragment);
+}
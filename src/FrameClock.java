@@ -0,0 +1,252 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class paces a render loop and divides the passing time into fixed updates. Each call to
+ * {@link #frame()} waits until the next tick of the target frame rate, then returns how many updates
+ * of a fixed length are due, so the simulation advances at the same rate no matter how fast frames are
+ * rendered. {@link #alpha()} tells how far the frame is between the last update and the next one, for
+ * interpolating what is drawn.
+ * <p>
+ * Ticks are kept on a fixed schedule instead of being counted from the end of the last frame, so the
+ * frame rate doesn't drift when frames take a little longer or wake up late. Waiting parks the thread
+ * until shortly before the tick, then spins for the rest, which leaves the processor to other threads
+ * for most of the wait while still waking up on time. How long it spins follows how late parking has
+ * woken up recently, since that depends on the operating system and on how busy it is.
+ * <p>
+ * When a frame takes longer than a tick, the {@link Overrun} policy decides whether the missed ticks
+ * and updates are caught up or skipped. Without a target frame rate there are no ticks to miss, so all
+ * the updates that passed are run, and only a frame far slower than the recent ones has its updates
+ * capped, so a stall doesn't snowball into ever longer frames.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class FrameClock
+{
+	/**
+	 * Ways of handling frames that take longer than a tick.
+	 */
+	public static enum Overrun
+	{
+		/** Render the missed frames without waiting and run the missed updates, up to {@link FrameClock#MAX_CATCH_UP} ticks of them */
+		CATCH_UP,
+		/** Drop the missed ticks and run the updates of a single tick, so the next frame starts on the next tick; only applies to a target frame rate */
+		SKIP
+	}
+	
+	/** Least time before each tick that is spent spinning instead of parked, since parking may wake up late */
+	public static final long SPIN_NS = 1000000L;
+	/** Largest number of ticks, or of recent frame times without a target frame rate, that are caught up at once, so a long stall doesn't snowball */
+	public static final int MAX_CATCH_UP = 5;
+	
+	/** Time between ticks, or 0 to render frames without waiting */
+	private long framePeriod;
+	/** Length of a fixed update */
+	private long updatePeriod;
+	/** Policy applied when a frame takes longer than a tick */
+	private Overrun overrun = Overrun.SKIP;
+	
+	/** Time of the next tick */
+	private long nextTick;
+	/** Time before the next tick that is spent spinning, following how late parking wakes up */
+	private long spin = SPIN_NS;
+	/** Time at which the last frame started */
+	private long lastFrame;
+	/** Time that passed but wasn't used by an update yet */
+	private long accumulated;
+	/** Time between the last two frames */
+	private long delta;
+	/** Average time between recent frames, which stands in for the tick without a target frame rate */
+	private long frameTime;
+	/** Number of frames since the clock was created */
+	private long frameCount;
+	/** Number of frames in the current second */
+	private int secondCount;
+	/** Time at which the current second ends */
+	private long nextSecond;
+	/** Number of frames in the last second, which may be read from other threads */
+	private volatile int frameRate;
+	
+	/**
+	 * Creates a clock with the given rates, starting now.
+	 * @param frameRate target frames per second, or 0 to render frames without waiting
+	 * @param updateRate fixed updates per second
+	 */
+	public FrameClock(double frameRate, double updateRate)
+	{
+		setFrameRate(frameRate);
+		setUpdateRate(updateRate);
+		frameTime = updatePeriod;
+		lastFrame = System.nanoTime();
+		nextTick = lastFrame + framePeriod;
+		nextSecond = lastFrame + 1000000000L;
+	}
+	
+	/**
+	 * Sets the target frame rate. The schedule restarts from the current time.
+	 * @param rate frames per second, or 0 to render frames without waiting
+	 */
+	public void setFrameRate(double rate)
+	{
+		long period = rate > 0.0 ? Math.round(1.0e9 / rate) : 0;
+		if(period == framePeriod)
+			return;
+		framePeriod = period;
+		nextTick = System.nanoTime() + period;
+	}
+	
+	/**
+	 * Sets the rate of the fixed updates.
+	 * @param rate updates per second, greater than 0
+	 */
+	public void setUpdateRate(double rate)
+	{
+		updatePeriod = Math.max(1, Math.round(1.0e9 / rate));
+	}
+	
+	/**
+	 * Sets how frames that take longer than a tick are handled.
+	 * @param overrun policy applied to missed ticks and updates
+	 */
+	public void setOverrun(Overrun overrun)
+	{
+		this.overrun = overrun;
+	}
+	
+	/**
+	 * Ends a frame: waits for the next tick, measures the time since the last frame and adds it to the
+	 * time available for updates. Should be called once per rendered frame.
+	 * @return number of fixed updates to run before rendering the next frame
+	 */
+	public int frame()
+	{
+		if(framePeriod > 0)
+			sync();
+		
+		long now = System.nanoTime();
+		delta = now - lastFrame;
+		lastFrame = now;
+		frameCount++;
+		secondCount++;
+		if(now - nextSecond >= 0)
+		{
+			frameRate = secondCount;
+			secondCount = 0;
+			nextSecond += ((now - nextSecond) / 1000000000L + 1) * 1000000000L;
+		}
+		return advance(delta);
+	}
+	
+	/**
+	 * Adds the time of a frame to the time available for updates and takes the updates that are due.
+	 * @param elapsed time since the last frame in nanoseconds
+	 * @return number of fixed updates to run before rendering the next frame
+	 */
+	int advance(long elapsed)
+	{
+		// Without a target frame rate, the recent frame time is the tick, so the guard follows how fast frames are rendered
+		long tick = framePeriod;
+		if(framePeriod == 0)
+		{
+			tick = frameTime;
+			frameTime += (elapsed - frameTime) / 16;
+		}
+		
+		// Updates that can't be caught up are dropped, keeping the part of an update that already passed
+		accumulated += elapsed;
+		long due = accumulated / updatePeriod;
+		// The rates are rounded to whole nanoseconds, so a tick is taken to the nearest number of updates
+		long limit = Math.max(1, (tick + updatePeriod / 2) / updatePeriod);
+		if(framePeriod == 0 || overrun == Overrun.CATCH_UP)
+			limit *= MAX_CATCH_UP;
+		if(due > limit)
+		{
+			accumulated -= (due - limit) * updatePeriod;
+			due = limit;
+		}
+		accumulated -= due * updatePeriod;
+		return (int)due;
+	}
+	
+	/**
+	 * Waits until the next tick of the target frame rate, parking the thread for most of the wait.
+	 * Missed ticks are caught up or skipped depending on the {@link Overrun} policy.
+	 */
+	public void sync()
+	{
+		if(framePeriod == 0)
+			return;
+		
+		long now = System.nanoTime();
+		long behind = now - nextTick;
+		if(behind > 0)
+		{
+			// Late, so the tick is taken right away, and the schedule is moved past the ticks that can't be caught up
+			long missed = behind / framePeriod;
+			if(overrun == Overrun.SKIP || missed >= MAX_CATCH_UP)
+				nextTick += missed * framePeriod;
+			nextTick += framePeriod;
+			return;
+		}
+		
+		// The margin grows to the latest wake up right away, and shrinks back slowly while parking is on time
+		long margin = Math.min(spin, framePeriod / 2);
+		for(long remaining = -behind; remaining > margin; remaining = nextTick - System.nanoTime())
+		{
+			long start = System.nanoTime();
+			LockSupport.parkNanos(remaining - margin);
+			long late = System.nanoTime() - start - (remaining - margin);
+			spin = Math.max(SPIN_NS, Math.max(late + SPIN_NS, spin - spin / 16));
+		}
+		
+		// Spin through the last moment, since parking may wake up late
+		while(nextTick - System.nanoTime() > 0)
+			continue;
+		nextTick += framePeriod;
+	}
+	
+	/**
+	 * Returns the time between the last two frames.
+	 * @return time in seconds
+	 */
+	public double deltaTime()
+	{
+		return delta / 1.0e9;
+	}
+	
+	/**
+	 * Returns the length of a fixed update.
+	 * @return time in seconds
+	 */
+	public double updateStep()
+	{
+		return updatePeriod / 1.0e9;
+	}
+	
+	/**
+	 * Returns how far the current frame is between the last update and the next one,
+	 * which can be used to interpolate between the states of the two updates.
+	 * @return fraction of an update, from 0 to 1
+	 */
+	public double alpha()
+	{
+		return (double)accumulated / updatePeriod;
+	}
+	
+	/**
+	 * Returns the number of frames during the last whole second.
+	 * @return frames per second
+	 */
+	public int frameRate()
+	{
+		return frameRate;
+	}
+	
+	/**
+	 * Returns the number of frames since the clock was created.
+	 * @return number of frames
+	 */
+	public long frameCount()
+	{
+		return frameCount;
+	}
+}
@@ -0,0 +1,116 @@
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * This class overlaps rendering a frame with presenting the frame before it. Each {@link #submit()} hands
+ * the frame finished by a {@link Shader} to a presenting thread and swaps another frame buffer into the
+ * {@link Shader}, so the next frame is rendered while the finished one is shown.
+ * <p>
+ * Frame buffers are passed between the threads through bounded queues. When every frame buffer is waiting
+ * to be presented, {@link #submit()} blocks until one is free again, so rendering never runs more than
+ * the number of extra frame buffers ahead of the screen. With two frame buffers, a frame is shown at
+ * most one frame later than when presenting it on the rendering thread.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class FramePipeline
+{
+	/** Image that tells the presenting thread to stop */
+	private static final BufferedImage STOP = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+	
+	/** {@link Shader} that renders the frames */
+	private final Shader shader;
+	/** Function that shows a finished frame, run on the presenting thread */
+	private final Consumer<BufferedImage> presenter;
+	/** Finished frames waiting to be presented, in order */
+	private final ArrayBlockingQueue<BufferedImage> finished;
+	/** Frame buffers that were presented and can be rendered into again */
+	private final ArrayBlockingQueue<BufferedImage> free;
+	/** Thread that presents the finished frames */
+	private final Thread thread;
+	
+	/**
+	 * Creates a pipeline and starts its presenting thread. The {@link Shader} keeps rendering into its
+	 * current frame buffer, and the other frame buffers are created with the resolution of the {@link Shader}.
+	 * @param shader {@link Shader} that renders the frames
+	 * @param buffers number of frame buffers, at least 2
+	 * @param presenter function that shows a finished frame, such as drawing it onto a {@link java.awt.image.BufferStrategy}.
+	 * 		The image may only be used until the function returns.
+	 */
+	public FramePipeline(Shader shader, int buffers, Consumer<BufferedImage> presenter)
+	{
+		this.shader = shader;
+		this.presenter = presenter;
+		buffers = Math.max(2, buffers);
+		finished = new ArrayBlockingQueue<>(buffers);
+		free = new ArrayBlockingQueue<>(buffers - 1);
+		for(int i = 1; i < buffers; i++)
+			free.add(shader.createFrame(shader.width, shader.height));
+		
+		thread = new Thread(this::present, "Frame presenter");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Hands the frame finished by the {@link Shader} to the presenting thread, and swaps in a free frame
+	 * buffer for the next frame. Blocks while every other frame buffer is still waiting to be presented.
+	 * The next frame must start with a clear, since the frame buffer swapped in holds an older frame.
+	 * @throws InterruptedException if the thread is interrupted while waiting for a free frame buffer
+	 */
+	public void submit() throws InterruptedException
+	{
+		BufferedImage next = free.take();
+		finished.put(shader.swapFrame(next));
+	}
+	
+	/**
+	 * Presents the frames that were submitted, then stops the presenting thread.
+	 * The pipeline can't be used afterwards.
+	 */
+	public void close()
+	{
+		try
+		{
+			finished.put(STOP);
+			thread.join();
+		}
+		catch(InterruptedException e)
+		{
+			thread.interrupt();
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Presents each finished frame, then frees its frame buffer, until the pipeline is closed.
+	 */
+	private void present()
+	{
+		try
+		{
+			for(BufferedImage image; (image = finished.take()) != STOP; )
+			{
+				// A frame that fails to present mustn't take its frame buffer out of the pipeline
+				Profiler profiler = shader.profiler;
+				long time = profiler != null ? System.nanoTime() : 0;
+				try
+				{
+					presenter.accept(image);
+				}
+				catch(RuntimeException e)
+				{
+					e.printStackTrace();
+				}
+				if(profiler != null)
+					profiler.lap(Profiler.Stage.PRESENT, time);
+				free.put(image);
+			}
+		}
+		catch(InterruptedException e)
+		{
+			return;
+		}
+	}
+}
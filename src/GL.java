@@ -11,8 +11,7 @@ import java.awt.event.KeyListener;
 import java.awt.image.BufferStrategy;
 import java.io.File;
 import java.io.IOException;
-
-import javax.imageio.ImageIO;
+import java.nio.IntBuffer;
 
 /**
  * Showcase of the capabilities of {@link Shader}
@@ -29,6 +28,8 @@ public class GL implements KeyListener
 	
 	/** {@link Shader} used in rendering */
 	private Shader shader;
+	/** Measures the stages of each frame, and keeps the frame times until the program ends */
+	private Profiler profiler = new Profiler();
 			
 	public static void main(String[] args)
 	{
@@ -84,51 +85,52 @@ public class GL implements KeyListener
 		ShaderProperty attribute = new ShaderProperty( 8, 3, 3 );
 		
 		// Shader Configuration
-		shader = new Shader(bounds.width, bounds.height, attribute, 
-				(in, out)-> {
-					shader.GL_X = in[0];
-					shader.GL_Y = in[1];
-					shader.GL_Z = in[2]; // Depth
-					out[0] = in[3]; // TX
-					out[1] = in[4]; // TY
-				},
-				(fragment)-> {
-					int i = shader.texture0.texture(fragment[0], fragment[1]);
-					float vx = fragment[0] - 0.5f;
-					float vy = fragment[1] - 0.5f;
+		shader = new Shader(bounds.width, bounds.height, attribute);
+		shader.setVertexShader((in, out)-> {
+					out.x = in[0];
+					out.y = in[1];
+					out.z = in[2]; // Depth
+					out.attributes[0] = in[3]; // TX
+					out.attributes[1] = in[4]; // TY
+				});
+		shader.setFragmentShader((fragment)-> {
+					float[] uv = fragment.attributes;
+					float vx = uv[0] - 0.5f;
+					float vy = uv[1] - 0.5f;
 					float dst = (float)Math.sqrt(vx * vx + vy * vy) * 2;
 					
 					if(dst >= 1.0f)
 						return;
 					
+					// Minified quads read from a smaller mipmap level
+					Texture level = shader.texture0.level(shader.texture0.lod(fragment.ddx[0], fragment.ddx[1], fragment.ddy[0], fragment.ddy[1]));
+					
 					float lt = 1.0f - dst;
-					shader.depth[shader.GL_INDEX] = shader.GL_DEPTH; 
-					shader.frame[shader.GL_INDEX] = ((byte)(shader.texture0.buffer[i | Texture.R] * lt) << 16) | 
-							 						 ((byte)(shader.texture0.buffer[i | Texture.G] * lt) << 8) | 
-							 						  (byte)(shader.texture0.buffer[i | Texture.B] * lt) ;
-				}
-		);
-		
-		float[] v1 = new float[8];
-		float[] v2 = new float[8];
-		float[] v3 = new float[8];	
-		float[] v4 = new float[8];	
-		
-		v1[2] = 0.1f;
-		v2[2] = 0.1f;
-		v3[2] = 0.2f;
-		v4[2] = 0.1f;
-		v1[3] = 0.0f; v1[4] = 0.0f; v1[5] = 1.0f; v1[6] = 0.0f; v1[7] = 0.0f;
-		v2[3] = 1.0f; v2[4] = 0.0f; v2[5] = 0.0f; v2[6] = 1.0f; v2[7] = 0.0f; 
-		v3[3] = 1.0f; v3[4] = 1.0f; v3[5] = 0.0f; v3[6] = 0.0f; v3[7] = 1.0f;
-		v4[3] = 0.0f; v4[4] = 1.0f; v4[5] = 1.0f; v4[6] = 1.0f; v4[7] = 1.0f;
-		
-		float[][] t1 = new float[][] { v1, v2, v3 };
-		float[][] t2 = new float[][] { v1, v3, v4 };
+					int texel = level.rgb(uv[0], uv[1]);
+					fragment.write( ((byte)(Texture.red(texel) * lt) << 16) | 
+									((byte)(Texture.green(texel) * lt) << 8) | 
+									 (byte)(Texture.blue(texel) * lt) );
+				});
+		
+		// Vertices of the quad, kept outside of the heap
+		VertexBuffer quad = new VertexBuffer(attribute, 4);
+		final int v1 = 0, v2 = 1, v3 = 2, v4 = 3;
+		
+		// Both triangles share the first and third vertices
+		IntBuffer indices = IntBuffer.wrap(new int[] { 0, 1, 2, 0, 2, 3 });
+		
+		quad.set(v1, 2, 0.1f);
+		quad.set(v2, 2, 0.1f);
+		quad.set(v3, 2, 0.2f);
+		quad.set(v4, 2, 0.1f);
+		quad.set(v1, 3, 0.0f); quad.set(v1, 4, 0.0f); quad.set(v1, 5, 1.0f); quad.set(v1, 6, 0.0f); quad.set(v1, 7, 0.0f);
+		quad.set(v2, 3, 1.0f); quad.set(v2, 4, 0.0f); quad.set(v2, 5, 0.0f); quad.set(v2, 6, 1.0f); quad.set(v2, 7, 0.0f); 
+		quad.set(v3, 3, 1.0f); quad.set(v3, 4, 1.0f); quad.set(v3, 5, 0.0f); quad.set(v3, 6, 0.0f); quad.set(v3, 7, 1.0f);
+		quad.set(v4, 3, 0.0f); quad.set(v4, 4, 1.0f); quad.set(v4, 5, 1.0f); quad.set(v4, 6, 1.0f); quad.set(v4, 7, 1.0f);
 		
 		try 
 		{
-			shader.texture0 = new Texture(ImageIO.read(new File("wood_floor.jpg")));
+			shader.texture0 = new TextureCache(new File("cache"), Texture.Filter.NEAREST, Texture.Layout.MORTON).load(new File("wood_floor.jpg"));
 		} 
 		catch (IOException e1) { e1.printStackTrace(); }
 		
@@ -137,55 +139,84 @@ public class GL implements KeyListener
 		window.setVisible(true);
 		window.createBufferStrategy(2);
 		strategy = window.getBufferStrategy();
-		//Time.vsyncEnabled = true;
+		
+		// The animation advances in fixed steps, however fast frames are rendered
+		FrameClock clock = new FrameClock(0.0, 120.0);
+		//clock.setFrameRate(60.0);
+		
+		// The resolution drops under load to keep frames within 60 frames per second
+		ResolutionController resolution = new ResolutionController(shader, bounds.width, bounds.height, 16666667L);
+		
+		// Frames are rasterized on every core while the previous frame is shown
+		shader.setParallelism(Runtime.getRuntime().availableProcessors());
+		shader.setProfiler(profiler);
+		FramePipeline pipeline = new FramePipeline(shader, 2, (image) -> {
+			// The frame is stretched over the whole screen, so it doesn't need to be cleared first
+			Graphics2D gl = (Graphics2D)strategy.getDrawGraphics();
+			Shader.Upscale.BILINEAR.draw(gl, image, 0, 0, bounds.width, bounds.height);
+			
+			// Show FPS
+			gl.setColor(Color.WHITE);
+			gl.drawString("FPS: " + clock.frameRate(), 5, 20);
+			gl.drawString(String.format("p99: %.2f ms", profiler.frameTimes().percentile(99.0) / 1000000.0), 5, 40);
+			gl.drawString(image.getWidth() + "x" + image.getHeight(), 5, 60);
+			gl.dispose();
+			strategy.show();
+		});
 		
 		// Render loop
 		while(true) 
 		{
 			// Update vertex position
-			v1[0] = 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer + Math.PI * 0.5 );
-			v2[0] = 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer );
-			v3[0] = 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer - Math.PI * 0.5 );
-			v4[0] = 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer + Math.PI );
-			v1[1] = 0.5f + 0.25f * (float)Math.sin( timer + Math.PI * 0.5 );
-			v2[1] = 0.5f + 0.25f * (float)Math.sin( timer );
-			v3[1] = 0.5f + 0.25f * (float)Math.sin( timer - Math.PI * 0.5 );
-			v4[1] = 0.5f + 0.25f * (float)Math.sin( timer - Math.PI );
+			quad.set(v1, 0, 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer + Math.PI * 0.5 ));
+			quad.set(v2, 0, 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer ));
+			quad.set(v3, 0, 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer - Math.PI * 0.5 ));
+			quad.set(v4, 0, 0.55f + aspectRatio * 0.25f * (float)Math.cos( timer + Math.PI ));
+			quad.set(v1, 1, 0.5f + 0.25f * (float)Math.sin( timer + Math.PI * 0.5 ));
+			quad.set(v2, 1, 0.5f + 0.25f * (float)Math.sin( timer ));
+			quad.set(v3, 1, 0.5f + 0.25f * (float)Math.sin( timer - Math.PI * 0.5 ));
+			quad.set(v4, 1, 0.5f + 0.25f * (float)Math.sin( timer - Math.PI ));
 			
-			// Get graphics
-			Graphics2D gl = (Graphics2D)strategy.getDrawGraphics();
-        	gl.setColor(Color.BLACK);
-        	gl.fillRect(0, 0, bounds.width, bounds.height);
-        	
         	// Render triangles
-        	shader.clearDepth();
-        	shader.render(gl, t1);
-        	shader.render(gl, t2);
+        	shader.clear();
+        	shader.render(quad, indices, Shader.Primitive.TRIANGLES);
         	
-        	v1[0] -= 0.1f; 
-        	v2[0] -= 0.1f; 
-        	v3[0] -= 0.1f; 
-        	v4[0] -= 0.1f;
+        	for(int v = 0; v < quad.count; v++)
+        		quad.set(v, 0, quad.get(v, 0) - 0.1f);
         	
-        	shader.render(gl, t1);
-        	shader.render(gl, t2);
+        	shader.render(quad, indices, Shader.Primitive.TRIANGLES);
 			
-        	// Show FPS
-        	gl.setColor(Color.WHITE);
-        	gl.drawString("FPS: " + Time.frameRate, 5, 20);
-			strategy.show();
+			// Present this frame while the next one is rendered
+			try
+			{
+				pipeline.submit();
+			}
+			catch(InterruptedException e)
+			{
+				break;
+			}
 			
-			Time.frame();
-			timer += Time.deltaTime;
+			profiler.frame();
+			resolution.update(profiler.frameTime());
+			for(int updates = clock.frame(); updates > 0; updates--)
+				timer += clock.updateStep();
 		}
+		pipeline.close();
 	}
 	
 	/**
-	 * Any key press will end the program.
+	 * Any key press will end the program, after writing the frame times to frames.hgrm.
 	 * @param e {@link KeyEvent} for key press
 	 */
 	public void keyPressed(KeyEvent e) 
 	{
+		// Keep the frame times for plotting, in milliseconds
+		try
+		{
+			profiler.frameTimes().write(new File("frames.hgrm"), 1000000.0);
+		}
+		catch(IOException e1) { e1.printStackTrace(); }
+		
 		window.dispose();
 		frame.dispose();
 		System.exit(-1);
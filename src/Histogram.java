@@ -0,0 +1,178 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class counts durations in log-linear buckets, so percentiles can be read back without keeping every value.
+ * Values below {@value #SUB_BUCKETS} are counted exactly. Above that, each power of two is split into
+ * {@value #HALF} equal buckets, so a percentile is never off by more than 1/{@value #HALF} of its value,
+ * while the whole range of a long fits in a few thousand counters. Recording doesn't allocate anything.
+ * <p>
+ * The distribution can be written in the percentile format of HdrHistogram, which its plotting tools read.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class Histogram
+{
+	/** Number of bits of each value that are kept exactly */
+	private static final int SUB_BITS = 7;
+	/** Number of values counted exactly, and the number of buckets in the first power of two above them */
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/** Number of buckets in each power of two above {@link #SUB_BUCKETS} */
+	private static final int HALF = SUB_BUCKETS / 2;
+	/** Number of lines written for each halving of the remaining percentiles */
+	private static final int TICKS_PER_HALF = 5;
+	
+	/** Number of values counted in each bucket */
+	private final long[] counts = new long[(64 - SUB_BITS + 1) * HALF];
+	/** Number of values counted */
+	private long total;
+	/** Sum of the values counted, used for the mean */
+	private double sum;
+	/** Sum of the squares of the values counted, used for the standard deviation */
+	private double squares;
+	/** Greatest value counted */
+	private long max;
+	
+	/**
+	 * Counts a value. Negative values are counted as 0.
+	 * @param value value to count, such as a duration in nanoseconds
+	 */
+	public synchronized void record(long value)
+	{
+		value = Math.max(0, value);
+		counts[index(value)]++;
+		total++;
+		sum += value;
+		squares += (double)value * value;
+		max = Math.max(max, value);
+	}
+	
+	/**
+	 * Returns the value that the given percentage of the counted values are less than or equal to.
+	 * The value is the largest one of its bucket, but never greater than {@link #max()}.
+	 * @param percentile percentage of the values, from 0 to 100
+	 * @return value at the percentile, or 0 if nothing was counted
+	 */
+	public synchronized long percentile(double percentile)
+	{
+		if(total == 0)
+			return 0;
+		long rank = Math.max(1, (long)Math.ceil(Math.min(100.0, percentile) / 100.0 * total));
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if(seen >= rank)
+				return Math.min(max, highest(i));
+		}
+		return max;
+	}
+	
+	/**
+	 * Returns the greatest value counted.
+	 * @return greatest value, or 0 if nothing was counted
+	 */
+	public synchronized long max()
+	{
+		return max;
+	}
+	
+	/**
+	 * Returns the mean of the counted values.
+	 * @return mean, or 0 if nothing was counted
+	 */
+	public synchronized double mean()
+	{
+		return total == 0 ? 0.0 : sum / total;
+	}
+	
+	/**
+	 * Returns the number of values counted.
+	 * @return number of values
+	 */
+	public synchronized long count()
+	{
+		return total;
+	}
+	
+	/**
+	 * Removes every counted value.
+	 */
+	public synchronized void reset()
+	{
+		Arrays.fill(counts, 0);
+		total = 0;
+		sum = 0.0;
+		squares = 0.0;
+		max = 0;
+	}
+	
+	/**
+	 * Writes the distribution of the counted values in the percentile format of HdrHistogram.
+	 * Each line holds a value, its percentile, the number of values up to it and 1/(1-percentile).
+	 * Lines get closer together towards the highest percentiles, with {@value #TICKS_PER_HALF} lines
+	 * each time the remaining percentage halves, and the last line holds the greatest value.
+	 * @param file file that is written
+	 * @param scale amount each value is divided by, such as 1000000 to write nanoseconds as milliseconds
+	 * @throws IOException if the file can't be written
+	 */
+	public synchronized void write(File file, double scale) throws IOException
+	{
+		try(PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name()))
+		{
+			out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+			long seen = 0;
+			double next = 0.0;
+			for(int i = 0; i < counts.length && seen < total; i++)
+			{
+				seen += counts[i];
+				double reached = (double)seen / total;
+				while(counts[i] > 0 && reached >= next && seen < total)
+				{
+					out.printf("%12.3f %2.12f %10d %14.2f%n", Math.min(max, highest(i)) / scale, next, seen, 1.0 / (1.0 - next));
+					
+					// Each halving of the remaining percentage gets the same number of lines
+					double remaining = 1.0 - next;
+					double half = Math.pow(2.0, Math.floor(Math.log(remaining) / Math.log(0.5)) + 1);
+					next = Math.min(1.0, next + (1.0 / half) / TICKS_PER_HALF);
+				}
+			}
+			if(total > 0)
+				out.printf("%12.3f %2.12f %10d %14s%n", max / scale, 1.0, total, "Infinity");
+			
+			double mean = mean();
+			double deviation = total == 0 ? 0.0 : Math.sqrt(Math.max(0.0, squares / total - mean * mean));
+			out.printf("#[Mean    = %12.3f, StdDeviation   = %12.3f]%n", mean / scale, deviation / scale);
+			out.printf("#[Max     = %12.3f, Total count    = %12d]%n", max / scale, total);
+			out.printf("#[Buckets = %12d, SubBuckets     = %12d]%n", 64 - SUB_BITS + 1, SUB_BUCKETS);
+		}
+	}
+	
+	/**
+	 * Returns the bucket that counts a value.
+	 * @param value value that isn't negative
+	 * @return index of the bucket
+	 */
+	private static int index(long value)
+	{
+		int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+		return shift * HALF + (int)(value >>> shift);
+	}
+	
+	/**
+	 * Returns the largest value counted by a bucket.
+	 * @param index index of the bucket
+	 * @return largest value of the bucket
+	 */
+	private static long highest(int index)
+	{
+		if(index < SUB_BUCKETS)
+			return index;
+		int shift = index / HALF - 1;
+		long sub = index - shift * HALF;
+		return ((sub + 1) << shift) - 1;
+	}
+}
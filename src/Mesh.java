@@ -0,0 +1,595 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * This class holds the vertices and triangle indices of a mesh, ready to be drawn with
+ * {@link Shader#render(VertexBuffer, IntBuffer, Shader.Primitive)}.
+ * Meshes are loaded from Wavefront OBJ files with {@link #loadObj(File, ShaderProperty)}, which maps
+ * the file into memory and parses it in parallel chunks, or from mesh files written by {@link #save(File)},
+ * which are mapped with {@link #map(File, ShaderProperty)} and not parsed at all.
+ * <p>
+ * Each vertex holds the position, then the texture coordinates, then the normal of a corner of the OBJ file,
+ * cut off at {@link ShaderProperty#inputSize} floats. A ShaderProperty with an input size of 3 only receives
+ * positions, a size of 5 also receives texture coordinates and a size of 8 receives everything.
+ * Elements past the eighth are left at 0.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class Mesh
+{
+	/** First integer of a mesh file */
+	private final static int FILE_MAGIC = 0x4D4C474A; // "JGLM"
+	/** Version of the mesh file layout */
+	private final static int FILE_VERSION = 1;
+	/** Size of the header of a mesh file in bytes */
+	private final static int FILE_HEADER = 32;
+	/** Smallest number of bytes of an OBJ file given to each parallel chunk */
+	final static int CHUNK_BYTES = 1 << 20;
+	/** Number of floats of each element of an OBJ vertex: position, texture coordinates and normal */
+	private final static int[] ELEMENT_SIZES = { 3, 2, 3 };
+	/** Value of an OBJ index that wasn't given */
+	private final static int NONE = Integer.MIN_VALUE;
+	
+	/** Vertices of the mesh */
+	public final VertexBuffer vertices;
+	/** Indices of the triangles of the mesh, three per triangle */
+	public final IntBuffer indices;
+	/** Bytes of {@link #indices} */
+	private final ByteBuffer indexBytes;
+	
+	/**
+	 * Creates a {@link Mesh} from its buffers.
+	 * @param vertices vertices of the mesh
+	 * @param indexBytes little-endian indices of the triangles of the mesh
+	 */
+	private Mesh(VertexBuffer vertices, ByteBuffer indexBytes)
+	{
+		this.vertices = vertices;
+		this.indexBytes = indexBytes.order(ByteOrder.LITTLE_ENDIAN);
+		indices = this.indexBytes.asIntBuffer();
+	}
+	
+	/**
+	 * Returns the number of triangles of the mesh.
+	 * @return number of triangles
+	 */
+	public int triangles()
+	{
+		return indices.capacity() / 3;
+	}
+	
+	/**
+	 * Loads a Wavefront OBJ file as a {@link Mesh}. The file is mapped into memory and split into chunks
+	 * of whole lines that are parsed in parallel, then the corners of the faces are merged into vertices.
+	 * Corners that share the same position, texture coordinates and normal share a vertex. Polygons are split
+	 * into fans of triangles, and relative indices are supported. Lines other than vertices and faces are ignored.
+	 * @param file OBJ file
+	 * @param property {@link ShaderProperty} that describes the layout of each vertex
+	 * @return {@link Mesh} in newly allocated direct memory
+	 * @throws IOException if the file can't be read or holds an invalid face
+	 */
+	public static Mesh loadObj(File file, ShaderProperty property) throws IOException
+	{
+		MappedByteBuffer data;
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			if(channel.size() > Integer.MAX_VALUE)
+				throw new IOException("OBJ file is too large to map: " + file);
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		
+		// Chunks end after a line break, so no line is split between two chunks
+		int length = data.limit();
+		int count = Math.max(1, Math.min(length / CHUNK_BYTES, Runtime.getRuntime().availableProcessors() * 4));
+		int[] bounds = new int[count + 1];
+		bounds[count] = length;
+		for(int i = 1; i < count; i++)
+		{
+			int b = Math.max(bounds[i - 1], (int)((long)length * i / count));
+			while(b < length && data.get(b) != '\n')
+				b++;
+			bounds[i] = Math.min(length, b + 1);
+		}
+		
+		ObjChunk[] chunks = new ObjChunk[count];
+		IntStream.range(0, count).parallel().forEach((c) -> chunks[c] = new ObjChunk(data, bounds[c], bounds[c + 1]));
+		for(ObjChunk chunk : chunks)
+			if(chunk.error != null)
+				throw new IOException(chunk.error + " in " + file);
+		
+		// Each chunk counted its own elements, so relative indices are offset by the elements of the chunks before it
+		int[][] offsets = new int[count][ELEMENT_SIZES.length];
+		int[] totals = new int[ELEMENT_SIZES.length];
+		int corners = 0;
+		for(int c = 0; c < count; c++)
+		{
+			for(int e = 0; e < ELEMENT_SIZES.length; e++)
+			{
+				offsets[c][e] = totals[e];
+				totals[e] += chunks[c].elements[e].size / ELEMENT_SIZES[e];
+			}
+			corners += chunks[c].corners.size / ELEMENT_SIZES.length;
+		}
+		float[][] elements = new float[ELEMENT_SIZES.length][];
+		for(int e = 0; e < ELEMENT_SIZES.length; e++)
+		{
+			elements[e] = new float[totals[e] * ELEMENT_SIZES[e]];
+			for(int c = 0, at = 0; c < count; c++)
+			{
+				FloatList list = chunks[c].elements[e];
+				System.arraycopy(list.values, 0, elements[e], at, list.size);
+				at += list.size;
+			}
+		}
+		
+		// Merge identical corners into a single vertex
+		CornerTable table = new CornerTable(corners);
+		int[] corner = new int[ELEMENT_SIZES.length];
+		ByteBuffer indexBytes = ByteBuffer.allocateDirect(Math.multiplyExact(corners, Integer.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+		for(int c = 0; c < count; c++)
+		{
+			IntList list = chunks[c].corners;
+			IntList relative = chunks[c].relative;
+			for(int i = 0; i < relative.size; i++)
+				list.values[relative.values[i]] += offsets[c][relative.values[i] % ELEMENT_SIZES.length];
+			for(int i = 0; i < list.size; i += ELEMENT_SIZES.length)
+			{
+				for(int e = 0; e < ELEMENT_SIZES.length; e++)
+				{
+					int index = list.values[i + e];
+					if(index != NONE && (index < 0 || index >= totals[e]))
+						throw new IOException("Face refers to missing element " + (index + 1) + " in " + file);
+					corner[e] = index;
+				}
+				if(corner[0] == NONE)
+					throw new IOException("Face corner without a position in " + file);
+				indexBytes.putInt(table.add(corner));
+			}
+		}
+		indexBytes.flip();
+		
+		VertexBuffer vertices = new VertexBuffer(property, table.size);
+		float[] vertex = new float[property.inputSize];
+		for(int v = 0; v < table.size; v++)
+		{
+			for(int e = 0, at = 0; e < ELEMENT_SIZES.length && at < vertex.length; at += ELEMENT_SIZES[e], e++)
+			{
+				int index = table.keys[v * ELEMENT_SIZES.length + e];
+				for(int i = 0; i < ELEMENT_SIZES[e] && at + i < vertex.length; i++)
+					vertex[at + i] = index == NONE ? 0.0f : elements[e][index * ELEMENT_SIZES[e] + i];
+			}
+			vertices.set(v, vertex);
+		}
+		return new Mesh(vertices, indexBytes);
+	}
+	
+	/**
+	 * Saves the mesh as a mesh file that can be opened with {@link #map(File, ShaderProperty)}.
+	 * The file starts with a header of eight little-endian integers: the magic number, the version,
+	 * the number of floats of each vertex, the number of vertices and the number of indices, followed by
+	 * three unused integers. The vertices and then the indices follow as little-endian floats and integers.
+	 * @param file destination of the mesh file
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(File file) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(FILE_MAGIC).putInt(FILE_VERSION);
+		header.putInt(vertices.property.inputSize).putInt(vertices.count).putInt(indices.capacity());
+		header.position(0);
+		
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			// Both buffers are written straight from their memory
+			for(ByteBuffer out : new ByteBuffer[] { header, vertices.bytes(), indexBytes.duplicate() })
+			{
+				out.clear();
+				while(out.hasRemaining())
+					channel.write(out);
+			}
+		}
+	}
+	
+	/**
+	 * Opens a mesh file by mapping it into memory. The vertices and indices are read straight from the
+	 * mapped file, so they are never copied onto the heap.
+	 * @param file mesh file written by {@link #save(File)}
+	 * @param property {@link ShaderProperty} that describes the layout of each vertex
+	 * @return read-only {@link Mesh} over the file
+	 * @throws IOException if the file can't be mapped, isn't a valid mesh file or doesn't match the ShaderProperty
+	 */
+	public static Mesh map(File file, ShaderProperty property) throws IOException
+	{
+		MappedByteBuffer data;
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			if(channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Mesh file is too large to map: " + file);
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		data.order(ByteOrder.LITTLE_ENDIAN);
+		
+		if(data.limit() < FILE_HEADER || data.getInt(0) != FILE_MAGIC || data.getInt(4) != FILE_VERSION)
+			throw new IOException("Not a mesh file: " + file);
+		int size = data.getInt(8);
+		int count = data.getInt(12);
+		int indices = data.getInt(16);
+		if(size != property.inputSize)
+			throw new IOException("Mesh file has vertices of " + size + " floats instead of " + property.inputSize + ": " + file);
+		long vertexBytes = (long)count * size * Float.BYTES;
+		if(count < 0 || indices < 0 || FILE_HEADER + vertexBytes + indices * 4L != data.limit())
+			throw new IOException("Corrupted mesh file header: " + file);
+		
+		data.position(FILE_HEADER);
+		ByteBuffer vertexData = data.slice();
+		vertexData.limit((int)vertexBytes);
+		data.position(FILE_HEADER + (int)vertexBytes);
+		return new Mesh(new VertexBuffer(property, vertexData), data.slice());
+	}
+	
+	/**
+	 * Parses a float from the bytes of an OBJ file, without creating a String.
+	 * Numbers with too many digits to be converted exactly fall back to {@link Float#parseFloat(String)}.
+	 * @param data bytes of the OBJ file
+	 * @param start position of the first character of the number
+	 * @param end position after the last character of the number
+	 * @return parsed value
+	 * @throws NumberFormatException if the characters aren't a number
+	 */
+	static float parseFloat(ByteBuffer data, int start, int end)
+	{
+		int i = start;
+		boolean negative = false;
+		if(i < end && (data.get(i) == '-' || data.get(i) == '+'))
+			negative = data.get(i++) == '-';
+		
+		// Up to 15 significant digits and a power of ten up to 22 are exact as doubles
+		long mantissa = 0;
+		int digits = 0, exponent = 0;
+		boolean any = false, exact = true;
+		for(boolean fraction = false; i < end; i++)
+		{
+			int d = data.get(i) - '0';
+			if(d == '.' - '0' && !fraction)
+			{
+				fraction = true;
+				continue;
+			}
+			if(d < 0 || d > 9)
+				break;
+			any = true;
+			if(digits < 15)
+			{
+				mantissa = mantissa * 10 + d;
+				if(mantissa != 0)
+					digits++;
+				if(fraction)
+					exponent--;
+			}
+			else
+				exact = false;
+		}
+		if(any && i < end && (data.get(i) | 0x20) == 'e')
+		{
+			boolean negativeExponent = false;
+			if(++i < end && (data.get(i) == '-' || data.get(i) == '+'))
+				negativeExponent = data.get(i++) == '-';
+			int power = 0;
+			boolean anyPower = false;
+			for(; i < end && data.get(i) >= '0' && data.get(i) <= '9'; i++, anyPower = true)
+				power = Math.min(1000, power * 10 + data.get(i) - '0');
+			any = anyPower;
+			exponent += negativeExponent ? -power : power;
+		}
+		
+		if(!any || i != end || !exact || exponent < -22 || exponent > 22)
+			return Float.parseFloat(text(data, start, end));
+		double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+		return (float)(negative ? -value : value);
+	}
+	
+	/** Powers of ten that are exact as doubles */
+	private final static double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	
+	/**
+	 * Parses an integer from the bytes of an OBJ file, without creating a String.
+	 * @param data bytes of the OBJ file
+	 * @param start position of the first character of the number
+	 * @param end position after the last character of the number
+	 * @return parsed value
+	 * @throws NumberFormatException if the characters aren't an integer
+	 */
+	static int parseInt(ByteBuffer data, int start, int end)
+	{
+		int i = start;
+		boolean negative = i < end && data.get(i) == '-';
+		if(negative)
+			i++;
+		if(i == end || end - i > 9)
+			return Integer.parseInt(text(data, start, end));
+		int value = 0;
+		for(; i < end; i++)
+		{
+			int d = data.get(i) - '0';
+			if(d < 0 || d > 9)
+				throw new NumberFormatException(text(data, start, end));
+			value = value * 10 + d;
+		}
+		return negative ? -value : value;
+	}
+	
+	/**
+	 * Returns characters of an OBJ file as a String.
+	 * @param data bytes of the OBJ file
+	 * @param start position of the first character
+	 * @param end position after the last character
+	 * @return characters between the positions
+	 */
+	private static String text(ByteBuffer data, int start, int end)
+	{
+		byte[] bytes = new byte[end - start];
+		for(int i = 0; i < bytes.length; i++)
+			bytes[i] = data.get(start + i);
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+	
+	/**
+	 * Holds the vertices and faces parsed from a chunk of whole lines of an OBJ file.
+	 * Indices of faces are stored zero-based. Relative indices are stored from the first element of the
+	 * chunk and listed in {@link #relative}, since the number of elements in the chunks before it isn't known yet.
+	 */
+	private static class ObjChunk
+	{
+		/** Positions, texture coordinates and normals of the chunk */
+		final FloatList[] elements = { new FloatList(), new FloatList(), new FloatList() };
+		/** Position, texture coordinate and normal indices of each corner of each triangle */
+		final IntList corners = new IntList();
+		/** Positions within {@link #corners} of the indices that are relative to the chunk */
+		final IntList relative = new IntList();
+		/** Description of the first invalid line, or null if the chunk was parsed */
+		String error;
+		
+		/** Bytes of the OBJ file */
+		private final ByteBuffer data;
+		/** Position after the current line */
+		private int lineEnd;
+		/** Position of the first character of the current token */
+		private int tokenStart;
+		/** Position after the last character of the current token */
+		private int tokenEnd;
+		/** Indices of the first, previous and current corners of the current face */
+		private final int[] face = new int[3 * ELEMENT_SIZES.length];
+		/** Whether each index of {@link #face} is relative to the chunk */
+		private final boolean[] faceRelative = new boolean[face.length];
+		
+		/**
+		 * Parses a chunk of an OBJ file.
+		 * @param data bytes of the OBJ file
+		 * @param start position of the first line of the chunk
+		 * @param end position after the last line of the chunk
+		 */
+		ObjChunk(ByteBuffer data, int start, int end)
+		{
+			this.data = data;
+			for(int i = start; i < end && error == null; i = lineEnd + 1)
+			{
+				lineEnd = i;
+				while(lineEnd < end && data.get(lineEnd) != '\n')
+					lineEnd++;
+				tokenEnd = i;
+				if(!token())
+					continue;
+				
+				try
+				{
+					int length = tokenEnd - tokenStart;
+					byte first = data.get(tokenStart);
+					if(first == 'v' && length == 1)
+						element(0);
+					else if(first == 'v' && length == 2 && data.get(tokenStart + 1) == 't')
+						element(1);
+					else if(first == 'v' && length == 2 && data.get(tokenStart + 1) == 'n')
+						element(2);
+					else if(first == 'f' && length == 1)
+						face();
+				}
+				catch(NumberFormatException e)
+				{
+					error = "Invalid number " + e.getMessage();
+				}
+			}
+		}
+		
+		/**
+		 * Finds the next token of the current line.
+		 * @return true if a token was found before the end of the line or a comment
+		 */
+		private boolean token()
+		{
+			tokenStart = tokenEnd;
+			while(tokenStart < lineEnd && data.get(tokenStart) <= ' ')
+				tokenStart++;
+			if(tokenStart == lineEnd || data.get(tokenStart) == '#')
+				return false;
+			tokenEnd = tokenStart;
+			while(tokenEnd < lineEnd && data.get(tokenEnd) > ' ')
+				tokenEnd++;
+			return true;
+		}
+		
+		/**
+		 * Parses the values of a vertex element. Missing values are set to 0, and extra values are ignored.
+		 * @param element index of the element within {@link Mesh#ELEMENT_SIZES}
+		 */
+		private void element(int element)
+		{
+			for(int i = 0; i < ELEMENT_SIZES[element]; i++)
+				elements[element].add(token() ? parseFloat(data, tokenStart, tokenEnd) : 0.0f);
+		}
+		
+		/**
+		 * Parses a face and adds it as a fan of triangles.
+		 */
+		private void face()
+		{
+			int n = ELEMENT_SIZES.length;
+			for(int c = 0; token(); c++)
+			{
+				// Corners look like p, p/t, p//n or p/t/n
+				int slot = Math.min(c, 2) * n;
+				for(int e = 0, at = tokenStart; e < n; e++)
+				{
+					int next = at;
+					while(next < tokenEnd && data.get(next) != '/')
+						next++;
+					int index = at < next ? parseInt(data, at, next) : NONE;
+					if(index == 0)
+					{
+						error = "Invalid index 0";
+						return;
+					}
+					
+					// Negative indices count back from the last element parsed so far
+					faceRelative[slot + e] = index < 0 && index != NONE;
+					if(faceRelative[slot + e])
+						face[slot + e] = elements[e].size / ELEMENT_SIZES[e] + index;
+					else
+						face[slot + e] = index == NONE ? NONE : index - 1;
+					at = Math.min(tokenEnd, next + 1);
+				}
+				
+				if(c >= 2)
+				{
+					for(int i = 0; i < face.length; i++)
+						if(faceRelative[i])
+							relative.add(corners.size + i);
+					corners.add(face, 0, face.length);
+					System.arraycopy(face, 2 * n, face, n, n);
+					System.arraycopy(faceRelative, 2 * n, faceRelative, n, n);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Growable list of floats.
+	 */
+	private static class FloatList
+	{
+		/** Values of the list, followed by unused space */
+		float[] values = new float[64];
+		/** Number of values in the list */
+		int size;
+		
+		/**
+		 * Adds a value to the end of the list.
+		 * @param value added value
+		 */
+		void add(float value)
+		{
+			if(size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+	}
+	
+	/**
+	 * Growable list of integers.
+	 */
+	private static class IntList
+	{
+		/** Values of the list, followed by unused space */
+		int[] values = new int[64];
+		/** Number of values in the list */
+		int size;
+		
+		/**
+		 * Adds a value to the end of the list.
+		 * @param value added value
+		 */
+		void add(int value)
+		{
+			if(size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+		
+		/**
+		 * Adds values to the end of the list.
+		 * @param source array holding the values
+		 * @param offset position of the first value within the array
+		 * @param length number of values
+		 */
+		void add(int[] source, int offset, int length)
+		{
+			if(size + length > values.length)
+				values = Arrays.copyOf(values, Math.max(size + length, size * 2));
+			System.arraycopy(source, offset, values, size, length);
+			size += length;
+		}
+	}
+	
+	/**
+	 * Hash table that gives each distinct corner of the faces its own vertex index,
+	 * using open addressing so corners don't need to be boxed.
+	 */
+	private static class CornerTable
+	{
+		/** Position, texture coordinate and normal indices of each vertex, in the order they were added */
+		final int[] keys;
+		/** Number of vertices */
+		int size;
+		/** Vertex held by each slot of the table, or -1 if the slot is empty */
+		private final int[] slots;
+		/** Shift that keeps the top bits of a hash as the slot, so every bit of the hash can pick it */
+		private final int shift;
+		
+		/**
+		 * Creates a table large enough for every corner of the faces.
+		 * @param corners number of corners
+		 */
+		CornerTable(int corners)
+		{
+			keys = new int[corners * ELEMENT_SIZES.length];
+			slots = new int[Integer.highestOneBit(Math.max(1, corners)) * 4];
+			Arrays.fill(slots, -1);
+			shift = 32 - Integer.numberOfTrailingZeros(slots.length);
+		}
+		
+		/**
+		 * Returns the vertex of a corner, adding a new vertex if the corner wasn't seen before.
+		 * @param corner position, texture coordinate and normal indices of the corner
+		 * @return index of the vertex
+		 */
+		int add(int[] corner)
+		{
+			int n = ELEMENT_SIZES.length;
+			int hash = (corner[0] * 31 + corner[1]) * 31 + corner[2];
+			int mask = slots.length - 1;
+			for(int s = (hash ^ (hash >>> 16)) * 0x9E3779B9 >>> shift; ; s = (s + 1) & mask)
+			{
+				int v = slots[s];
+				if(v < 0)
+				{
+					System.arraycopy(corner, 0, keys, size * n, n);
+					slots[s] = size;
+					return size++;
+				}
+				if(keys[v * n] == corner[0] && keys[v * n + 1] == corner[1] && keys[v * n + 2] == corner[2])
+					return v;
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class measures where the time of each frame goes. A {@link Shader} given a profiler through
+ * {@link Shader#setProfiler(Profiler)} adds the time spent in each {@link Stage} and counts the pixels it
+ * rasterizes and the fragments it shades. Calling {@link #frame()} once per frame ends the current frame:
+ * its totals become readable through the getters until the next frame ends, and its duration is counted
+ * in {@link #frameTimes()}, whose percentiles can be written to a file.
+ * <p>
+ * The counters can be updated from every rendering thread at once. Times are only measured while a profiler
+ * is set, and the pixels and fragments are counted once per row, so a {@link Shader} without a profiler
+ * only pays for a null check. Since the stages are timed on the thread that runs them, the stage times
+ * of a frame rendered in parallel can add up to more than its duration.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class Profiler
+{
+	/**
+	 * Stages of the pipeline that are timed.
+	 */
+	public static enum Stage
+	{
+		/** Running the vertex shader and reading the vertices and indices */
+		VERTEX,
+		/** Culling, clipping, setting up and binning triangles */
+		SETUP,
+		/** Rasterizing triangles and running the fragment shader, including flushing binned triangles */
+		RASTER,
+		/** Wiping the frame and depth buffers */
+		CLEAR,
+		/** Resolving and drawing finished frames */
+		PRESENT
+	}
+	
+	/** Time spent in each stage during the current frame, in nanoseconds */
+	private final LongAdder[] times = new LongAdder[Stage.values().length];
+	/** Pixels whose depth was tested during the current frame */
+	private final LongAdder pixels = new LongAdder();
+	/** Fragments passed to a shader during the current frame */
+	private final LongAdder shaded = new LongAdder();
+	/** Durations of the frames, in nanoseconds */
+	private final Histogram frameTimes = new Histogram();
+	/** Threads whose allocated bytes are counted, or null if the JVM doesn't count them */
+	private final com.sun.management.ThreadMXBean threads;
+	
+	/** Time at which the current frame started, or 0 before the first call to {@link #frame()} */
+	private long frameStart;
+	/** Threads that were alive at the start of the current frame, sorted */
+	private long[] threadIds = new long[0];
+	/** Bytes allocated by each thread of {@link #threadIds} before the current frame */
+	private long[] threadBytes = new long[0];
+	
+	/** Time spent in each stage during the last frame */
+	private final long[] lastTimes = new long[Stage.values().length];
+	/** Pixels tested during the last frame */
+	private long lastPixels;
+	/** Fragments shaded during the last frame */
+	private long lastShaded;
+	/** Bytes allocated during the last frame */
+	private long lastAllocated;
+	/** Duration of the last frame */
+	private long lastFrame;
+	
+	/**
+	 * Creates a profiler with empty counters. The first frame starts at the first call to {@link #frame()}.
+	 */
+	public Profiler()
+	{
+		for(int i = 0; i < times.length; i++)
+			times[i] = new LongAdder();
+		
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		threads = bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported()
+				? (com.sun.management.ThreadMXBean)bean : null;
+	}
+	
+	/**
+	 * Ends the current frame and starts the next one. The totals of the frame that ended replace those
+	 * returned by the getters, and its duration is counted in {@link #frameTimes()}. Anything measured
+	 * before the first call is counted in the first frame, whose duration isn't known and isn't counted.
+	 */
+	public synchronized void frame()
+	{
+		long now = System.nanoTime();
+		lastFrame = frameStart == 0 ? 0 : now - frameStart;
+		if(frameStart != 0)
+			frameTimes.record(lastFrame);
+		frameStart = now;
+		
+		for(int i = 0; i < times.length; i++)
+			lastTimes[i] = times[i].sumThenReset();
+		lastPixels = pixels.sumThenReset();
+		lastShaded = shaded.sumThenReset();
+		lastAllocated = allocated();
+	}
+	
+	/**
+	 * Returns the time spent in a stage during the last frame.
+	 * @param stage stage of the pipeline
+	 * @return time in nanoseconds
+	 */
+	public synchronized long time(Stage stage)
+	{
+		return lastTimes[stage.ordinal()];
+	}
+	
+	/**
+	 * Returns the number of pixels whose depth was tested by the rasterizer during the last frame.
+	 * Pixels of blocks skipped by the hierarchical depth buffer aren't tested, and aren't counted.
+	 * @return number of pixels
+	 */
+	public synchronized long pixels()
+	{
+		return lastPixels;
+	}
+	
+	/**
+	 * Returns the number of fragments passed to the fragment shader or a span shader during the last frame.
+	 * @return number of fragments
+	 */
+	public synchronized long fragmentsShaded()
+	{
+		return lastShaded;
+	}
+	
+	/**
+	 * Returns the number of pixels tested during the last frame that weren't shaded, because they
+	 * failed the depth test or, when deferred, were covered by a closer triangle before being shaded.
+	 * @return number of fragments
+	 */
+	public synchronized long fragmentsRejected()
+	{
+		return Math.max(0, lastPixels - lastShaded);
+	}
+	
+	/**
+	 * Returns the number of bytes allocated by every thread of the JVM during the last frame.
+	 * Threads that ended during the frame aren't counted.
+	 * @return number of bytes, or 0 if the JVM doesn't count them
+	 */
+	public synchronized long allocatedBytes()
+	{
+		return lastAllocated;
+	}
+	
+	/**
+	 * Returns the duration of the last frame.
+	 * @return time in nanoseconds, or 0 before the second call to {@link #frame()}
+	 */
+	public synchronized long frameTime()
+	{
+		return lastFrame;
+	}
+	
+	/**
+	 * Returns the durations of every frame so far, in nanoseconds.
+	 * @return {@link Histogram} of the frame times
+	 */
+	public Histogram frameTimes()
+	{
+		return frameTimes;
+	}
+	
+	/**
+	 * Adds the time since a previous measurement to a stage of the current frame.
+	 * @param stage stage that ran since the previous measurement
+	 * @param start time of the previous measurement from {@link System#nanoTime()}
+	 * @return current time, which can be passed to the next measurement
+	 */
+	long lap(Stage stage, long start)
+	{
+		long now = System.nanoTime();
+		times[stage.ordinal()].add(now - start);
+		return now;
+	}
+	
+	/**
+	 * Counts the pixels of a row that were tested and the fragments of the row that were shaded.
+	 * @param tested number of pixels whose depth was tested
+	 * @param fragments number of fragments that were shaded
+	 */
+	void count(int tested, int fragments)
+	{
+		if(tested != 0)
+			pixels.add(tested);
+		if(fragments != 0)
+			shaded.add(fragments);
+	}
+	
+	/**
+	 * Returns the bytes allocated by every live thread since the previous call, and remembers the
+	 * current count of each thread. Threads that started since the previous call count all of their bytes.
+	 * @return number of bytes allocated
+	 */
+	private long allocated()
+	{
+		if(threads == null)
+			return 0;
+		long[] ids = threads.getAllThreadIds();
+		Arrays.sort(ids);
+		long[] bytes = threads.getThreadAllocatedBytes(ids);
+		
+		long total = 0;
+		for(int i = 0; i < ids.length; i++)
+		{
+			if(bytes[i] < 0)
+				continue;
+			int previous = Arrays.binarySearch(threadIds, ids[i]);
+			total += bytes[i] - (previous >= 0 ? Math.max(0, threadBytes[previous]) : 0);
+		}
+		threadIds = ids;
+		threadBytes = bytes;
+		return total;
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ * This class lowers or raises the resolution a {@link Shader} renders in to hold a budget for the frame time,
+ * while the frames keep being presented over the whole output, for example through 
+ * {@link Shader#present(java.awt.Graphics2D, int, int, int, int, Shader.Upscale)}. Calling {@link #update(long)} once 
+ * per frame with the duration of the frame adjusts the resolution between frames.
+ * <p>
+ * The frame time is assumed to grow with the number of pixels, so the scale is chosen from a smoothed frame
+ * time to fit within {@link #HEADROOM} of the budget. It is lowered as soon as the smoothed time goes over
+ * the budget, or right away when a single frame goes over it by {@link #SPIKE}, so load spikes cost detail
+ * rather than frames. It is only raised a step at a time once the frames have stayed well within the budget
+ * for {@link #RAISE_DELAY} frames, so the resolution doesn't keep going up and down around the budget.
+ * <p>
+ * The scale is rounded to steps of {@link #STEP}. Since the buffers of a {@link Shader} are reused while
+ * they are large enough, changing between resolutions below the starting one allocates no buffer, only
+ * a new image that wraps the frame buffer of the {@link Shader}.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class ResolutionController
+{
+	/** Steps in which the scale of each axis changes */
+	public static final float STEP = 0.05f;
+	/** Fraction of the budget that the chosen resolution is expected to take, which leaves room for noise */
+	public static final double HEADROOM = 0.85;
+	/** Factor by which a single frame must go over the budget to lower the resolution without waiting for the average */
+	public static final double SPIKE = 1.5;
+	/** Number of frames within the budget before the resolution is raised again */
+	public static final int RAISE_DELAY = 30;
+	/** Number of frames after a change before the resolution is lowered again, so the change shows up in the frame times */
+	public static final int LOWER_DELAY = 3;
+	/** Weight of each new frame in the smoothed frame time */
+	private static final double SMOOTHING = 0.1;
+	
+	/** {@link Shader} whose resolution is adjusted */
+	private final Shader shader;
+	/** Horizontal resolution the frames are presented at */
+	private int outputWidth;
+	/** Vertical resolution the frames are presented at */
+	private int outputHeight;
+	/** Budget for the duration of a frame, in nanoseconds */
+	private long budget;
+	/** Lowest scale of each axis */
+	private float minScale = 0.25f;
+	/** Highest scale of each axis */
+	private float maxScale = 1.0f;
+	
+	/** Current scale of each axis, relative to the output */
+	private float scale;
+	/** Smoothed duration of the frames, or 0 before the first frame */
+	private double average;
+	/** Number of frames since the resolution last changed */
+	private int frames;
+	
+	/**
+	 * Creates a controller that starts rendering at the output resolution, which must already be the resolution of the {@link Shader}.
+	 * @param shader {@link Shader} whose resolution is adjusted
+	 * @param w horizontal resolution the frames are presented at
+	 * @param h vertical resolution the frames are presented at
+	 * @param budget budget for the duration of a frame, in nanoseconds, such as 16666667 for 60 frames per second
+	 */
+	public ResolutionController(Shader shader, int w, int h, long budget)
+	{
+		this.shader = shader;
+		this.budget = budget;
+		outputWidth = w;
+		outputHeight = h;
+		scale = maxScale;
+	}
+	
+	/**
+	 * Sets the budget for the duration of a frame.
+	 * @param budget time in nanoseconds
+	 */
+	public void setBudget(long budget)
+	{
+		this.budget = budget;
+	}
+	
+	/**
+	 * Sets the range of the scale of each axis. The current scale is brought into the range.
+	 * @param min lowest scale, greater than 0
+	 * @param max highest scale, usually 1 to render at most at the output resolution
+	 */
+	public void setScaleRange(float min, float max)
+	{
+		minScale = min;
+		maxScale = Math.max(min, max);
+		apply(Math.max(minScale, Math.min(maxScale, scale)));
+	}
+	
+	/**
+	 * Sets the resolution the frames are presented at, such as after the window is resized.
+	 * The {@link Shader} is given the current scale of the new resolution.
+	 * @param w horizontal resolution of the output
+	 * @param h vertical resolution of the output
+	 */
+	public void setOutput(int w, int h)
+	{
+		outputWidth = w;
+		outputHeight = h;
+		apply(scale);
+	}
+	
+	/**
+	 * Counts the duration of a frame, and changes the resolution of the {@link Shader} if needed. Must be 
+	 * called between frames, on the thread that renders them, since the buffers of the {@link Shader} are
+	 * cleared when its resolution changes.
+	 * @param frameTime duration of the frame that ended, in nanoseconds, such as {@link Profiler#frameTime()}.
+	 * 		Durations that aren't positive are ignored.
+	 * @return true if the resolution changed
+	 */
+	public boolean update(long frameTime)
+	{
+		if(frameTime <= 0)
+			return false;
+		average = average == 0.0 ? frameTime : average + (frameTime - average) * SMOOTHING;
+		frames++;
+		
+		// A spike counts in full, since waiting for the average would drop the frames after it too
+		double time = frameTime > budget * SPIKE ? Math.max(average, frameTime) : average;
+		double target = budget * HEADROOM;
+		if(time > budget && frames > LOWER_DELAY && scale > minScale)
+		{
+			// Largest step whose pixels are expected to fit within the headroom
+			float next = step((float)(scale * Math.sqrt(target / time)), false);
+			return apply(Math.max(minScale, Math.min(scale - STEP, next)));
+		}
+		
+		if(frames > RAISE_DELAY && scale < maxScale)
+		{
+			float next = Math.min(maxScale, step(scale + STEP, true));
+			if(time * (next * next) / (scale * scale) <= target)
+				return apply(next);
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the current scale of each axis, relative to the output.
+	 * @return scale from the lowest to the highest scale of the range
+	 */
+	public float scale()
+	{
+		return scale;
+	}
+	
+	/**
+	 * Returns the smoothed duration of the frames, as used to choose the resolution.
+	 * @return time in nanoseconds, or 0 before the first frame
+	 */
+	public double averageFrameTime()
+	{
+		return average;
+	}
+	
+	/**
+	 * Rounds a scale to a step of {@link #STEP}.
+	 * @param value scale to round
+	 * @param up true to round up, false to round down
+	 * @return rounded scale
+	 */
+	private static float step(float value, boolean up)
+	{
+		// The small margin keeps a scale that is already on a step from moving to the next one
+		double steps = value / STEP;
+		return (float)((up ? Math.ceil(steps - 1.0e-3) : Math.floor(steps + 1.0e-3)) * STEP);
+	}
+	
+	/**
+	 * Sets the scale and gives the {@link Shader} the matching resolution, if it changed.
+	 * The smoothed frame time is scaled by the change in pixels, as a guess until new frames are measured.
+	 * @param next new scale of each axis
+	 * @return true if the resolution of the {@link Shader} changed
+	 */
+	private boolean apply(float next)
+	{
+		int w = Math.max(1, Math.round(outputWidth * next));
+		int h = Math.max(1, Math.round(outputHeight * next));
+		average *= (double)(next * next) / (scale * scale);
+		scale = next;
+		frames = 0;
+		if(w == shader.width && h == shader.height)
+			return false;
+		shader.setResolution(w, h);
+		return true;
+	}
+}
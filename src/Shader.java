@@ -6,18 +6,32 @@ import java.awt.RenderingHints;
 import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBufferInt;
 import java.awt.image.DirectColorModel;
 import java.awt.image.Raster;
-import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * This class allows for the rendering of a vertex array using bilinear interpolated shading.
- * @version Last Edited: August/08/2020
+ * Triangles can either be filled through {@link Graphics2D} or by the built-in rasterizer,
+ * which does not require a display. The built-in rasterizer can also bin triangles into
+ * screen tiles and shade the tiles on several threads.
+ * <p>
+ * Shaders set through {@link #setVertexShader(VertexShader)} and {@link #setFragmentShader(FragmentShader)}
+ * receive their own {@link Vertex} and {@link Fragment}, which lets the built-in rasterizer render
+ * from several threads at once. Shaders given to the constructor communicate through the GL fields
+ * instead, so they must only be used from one thread.
+ * @version Last Edited: October/18/2026
  * @author Sean Rannie
  */
 public class Shader implements Paint, PaintContext
@@ -26,6 +40,17 @@ public class Shader implements Paint, PaintContext
 	public static final int G = 1;
 	public static final int B = 0;
 	
+	/** Number of bits of sub-pixel precision used by the built-in rasterizer */
+	public static final int SUBPIXEL_BITS = 4;
+	/** Width and height of a screen tile used when rendering in parallel */
+	public static final int TILE_SIZE = 64;
+	/** Number of generations {@link #clear()} can tell apart, after which the buffers are wiped */
+	public static final int CLEAR_GENERATIONS = 256;
+	/** Number of bits of the width and height of the blocks that are wiped after a {@link #clear()} */
+	private static final int CLEAR_BLOCK_BITS = 3;
+	/** Number of transformed vertices each thread keeps while drawing from a {@link VertexBuffer} */
+	private static final int VERTEX_CACHE_SIZE = 1024;
+	
 	/** {@link Raster} that gets passed between the Graphics2D component */
 	private WritableRaster raster;
 	/** {@link ColorModel} used by the shader */
@@ -34,12 +59,22 @@ public class Shader implements Paint, PaintContext
 	public float[] depth;
 	/** A copy of the rendered screen */
 	public int[] frame;
+	/** Image whose pixels are {@link #frame}, which is drawn by {@link #present(Graphics2D, int, int)} */
+	private BufferedImage image;
+	/** Generation started by the last {@link #clear()}, or 0 since the last {@link #clearDepth()} */
+	private byte generation;
+	/** Generation of {@link #clear()} in which each block of the depth buffer was last wiped */
+	private byte[] blockGenerations;
+	/** Number of blocks wiped after a {@link #clear()} along the horizontal axis */
+	private int blocksX;
+	/** Whether {@link #frame} may still hold the colors of pixels that weren't drawn since the last {@link #clear()} */
+	private boolean stale;
 	/** Buffer that is used when rending raster strips */
 	private int[] buffer;
 	/** Horizontal resolution of the rendering area */
-	private int width;
+	int width;
 	/** Vertical resolution of the rendering area */
-	private int height;
+	int height;
 	/** Width of a pixel relative to the total width. (1 / width) */
 	private float w_scale;
 	/** Height of a pixel relative to the total height (1 / eight) */
@@ -54,7 +89,7 @@ public class Shader implements Paint, PaintContext
 	/** Stores final z position of vertex for later */
 	private float[] ZPos;
 	/** Stores result of vertex shader */
-	private float[][] vertexOut;
+	private Vertex[] vertexOut;
 	/** Copy of the vertex array's first vertex array */
 	private float[] vs;
 	/** Array of final x values used to draw the vertex array */
@@ -68,6 +103,8 @@ public class Shader implements Paint, PaintContext
 	private float[] tvec;
 	/** Cached vector used when rendering stripes */
 	private float[] cache_vec;
+	/** Change of each interpolated value per pixel along the vertical axis */
+	private float[] ddy;
 	/** Holds the interpolated value between vertices, which is passed to the fragment shader */
 	public float[] interpolated;
 	
@@ -85,9 +122,46 @@ public class Shader implements Paint, PaintContext
 	private float svecy = 0.0f;
 	
 	/** Vertex Shader that is applied to each vertex */
-	private BiConsumer<float[], float[]> vertexShader;
+	private VertexShader vertexShader = (in, out) -> { };
 	/** Fragment Shader that is applied for every rendered pixel */
-	private Consumer<float[]> fragmentShader;
+	FragmentShader fragmentShader = (f) -> { };
+	/** Whether the fragment shader only relies on its {@link Fragment} and can run on several threads */
+	private boolean reentrant = true;
+	/** Span Shader that is applied to whole runs of rendered pixels instead of the fragment shader */
+	SpanShader spanShader;
+	/** Whether rows are shaded by a loop specialized for the fragment shader and vertex structure */
+	private boolean specialized = true;
+	/** Loop that interpolates and shades the fragments of a row for the fragment shader alone, or null to use the shared loops */
+	FragmentLoop loop;
+	/** Measures the time of each stage and counts the pixels and fragments, or null when not profiling */
+	Profiler profiler;
+	/** Lowest depths of the areas of the depth buffer, or null when triangles aren't rejected early */
+	DepthPyramid pyramid;
+	/** Triangle visible at each pixel that hasn't been shaded yet or -1, or null when shading immediately */
+	int[] visibility;
+	/** Winding of the triangles that are dropped before being rasterized */
+	private Cull cull = Cull.NONE;
+	/** {@link Fragment} used when rendering through {@link Graphics2D} */
+	private Fragment fragment;
+	/** State of each thread rendering with the built-in rasterizer */
+	private final ThreadLocal<Context> contexts = new ThreadLocal<>();
+	
+	/** Pool that rasterizes the tiles when rendering in parallel, null when rendering immediately */
+	private ForkJoinPool pool;
+	/** One {@link Fragment} for each thread of the pool */
+	private Fragment[] workerFragments;
+	/** Triangles waiting to be rasterized by the pool */
+	private Triangle[] triangles = new Triangle[0];
+	/** Number of triangles waiting to be rasterized by the pool */
+	private int triangleCount;
+	/** Number of tiles along the horizontal axis */
+	private int tilesX;
+	/** Number of tiles along the vertical axis */
+	private int tilesY;
+	/** Indices of the triangles that overlap each tile, in the order they were rendered */
+	private int[][] bins;
+	/** Number of triangles in each tile */
+	private int[] binSize;
 	
 	/** {@link Texture} that is currently binded */
 	public Texture texture0 = new Texture();
@@ -103,6 +177,7 @@ public class Shader implements Paint, PaintContext
 	
 	/**
 	 * Sets the resolution and shading functions used by the {@link Shader}.
+	 * The shading functions communicate through the GL fields of the {@link Shader}.
 	 * @param w horizontal resolution of the screen
 	 * @param h vertical resolution of the screen
 	 * @param property {@link ShaderProperty} that defines the vertex structure
@@ -111,32 +186,97 @@ public class Shader implements Paint, PaintContext
 	 */
 	public Shader(int w, int h, ShaderProperty property, BiConsumer<float[], float[]> vShader, Consumer<float[]> fShader)
 	{
-		buffer = new int[w];
-		depth = new float[w * h];
-		frame = new int[w * h];
+		this(w, h, property);
 		
-		DataBufferInt dataBuffer = new DataBufferInt(buffer, buffer.length);
+		// Legacy shaders pass the vertex and fragment through the fields of this Shader
+		vertexShader = (in, out) -> {
+			vShader.accept(in, out.attributes);
+			out.x = GL_X;
+			out.y = GL_Y;
+			out.z = GL_Z;
+		};
+		fragmentShader = (f) -> {
+			GL_INDEX = f.index;
+			GL_DEPTH = f.depth;
+			fShader.accept(f.attributes);
+		};
+		reentrant = false;
+		specialize();
+	}
+	
+	/**
+	 * Sets the resolution used by the {@link Shader}. The shading functions are set through
+	 * {@link #setVertexShader(VertexShader)} and {@link #setFragmentShader(FragmentShader)}.
+	 * @param w horizontal resolution of the screen
+	 * @param h vertical resolution of the screen
+	 * @param property {@link ShaderProperty} that defines the vertex structure
+	 */
+	public Shader(int w, int h, ShaderProperty property)
+	{
 		cm = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
-		SampleModel sm = cm.createCompatibleSampleModel(w, 1);
-		raster = Raster.createWritableRaster(sm, dataBuffer, null);
-		
 		setResolution( w, h );
 		setProperty( property );
-		vertexShader = vShader;
-		fragmentShader = fShader;
 	}
 	
 	/**
-	 * Updates the resolution that the {@link Shader} renders in.
+	 * Updates the resolution that the {@link Shader} renders in, which may differ from the area the frame
+	 * is presented on through {@link #present(Graphics2D, int, int, int, int, Upscale)}. The buffers, the tiles
+	 * and the hierarchical depth buffer only grow when the new resolution needs more room than they hold,
+	 * otherwise they are reused, so changing between lower resolutions allocates no buffer. Only the image
+	 * that wraps {@link #frame} with the new resolution is created again, which shares its pixels. Rows of 
+	 * {@link #frame} and {@link #depth} are {@link #width} pixels long, and the buffers may be longer than 
+	 * the frame. Both buffers are cleared.
 	 * @param w horizontal resolution of the screen
 	 * @param h vertical resolution of the screen
 	 */
 	public void setResolution(int w, int h)
 	{
-		width = w;
-		height = h;
+		flush();
+		width = Math.max(1, w);
+		height = Math.max(1, h);
 		w_scale = 1.0f / width;
 		h_scale = 1.0f / height;
+		
+		// Strips rendered through Graphics2D are at most a row long
+		if(buffer == null || buffer.length < width)
+		{
+			buffer = new int[width];
+			raster = Raster.createWritableRaster(cm.createCompatibleSampleModel(width, 1), new DataBufferInt(buffer, width), null);
+		}
+		
+		// The image shares the frame buffer, so drawing it needs no copy
+		int pixels = width * height;
+		if(depth == null || depth.length < pixels)
+			depth = new float[pixels];
+		blocksX = (width + (1 << CLEAR_BLOCK_BITS) - 1) >> CLEAR_BLOCK_BITS;
+		int blocks = blocksX * ((height + (1 << CLEAR_BLOCK_BITS) - 1) >> CLEAR_BLOCK_BITS);
+		if(blockGenerations == null || blockGenerations.length < blocks)
+			blockGenerations = new byte[blocks];
+		image = fitFrame(image);
+		frame = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+		if(visibility != null && visibility.length < pixels)
+			visibility = new int[pixels];
+		
+		if(pyramid != null)
+			pyramid.setResolution(depth, width, height);
+		
+		// Bins keep the room they grew to
+		tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+		tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+		if(bins == null || bins.length < tilesX * tilesY)
+		{
+			int old = bins == null ? 0 : bins.length;
+			bins = bins == null ? new int[tilesX * tilesY][] : Arrays.copyOf(bins, tilesX * tilesY);
+			binSize = new int[bins.length];
+			for(int i = old; i < bins.length; i++)
+				bins[i] = new int[16];
+		}
+		triangleCount = 0;
+		
+		// The buffers still hold pixels laid out for the previous resolution
+		clearDepth();
+		if(visibility != null)
+			Arrays.fill(visibility, 0, pixels, -1);
 	}
 	
 	/**
@@ -145,8 +285,9 @@ public class Shader implements Paint, PaintContext
 	 */
 	public void setProperty(ShaderProperty atr)
 	{
+		flush();
 		attribute = atr;
-
+		
 		xs = new int[attribute.numVertex];
 		ys = new int[attribute.numVertex];
 		XPos = new float[attribute.numVertex];
@@ -155,19 +296,386 @@ public class Shader implements Paint, PaintContext
 		svec = new float[attribute.outputSize];
 		tvec = new float[attribute.outputSize];
 		cache_vec = new float[attribute.outputSize];
+		ddy = new float[attribute.outputSize];
 		interpolated = new float[attribute.outputSize];
-		vertexOut = new float[attribute.numVertex][attribute.outputSize];
+		vertexOut = new Vertex[attribute.numVertex];
+		for(int i = 0; i < attribute.numVertex; i++)
+			vertexOut[i] = new Vertex(attribute);
+		
+		fragment = new Fragment(interpolated);
+		triangles = new Triangle[0];
+		triangleCount = 0;
+		if(pool != null)
+			setParallelism(pool.getParallelism());
+		specialize();
+	}
+	
+	/**
+	 * Sets the {@link VertexShader} used by the {@link Shader}. Unlike the {@link BiConsumer} given 
+	 * to the constructor, it receives its own {@link Vertex}, so it may be run on several threads 
+	 * as long as it doesn't use the GL fields of this {@link Shader}.
+	 * @param vShader {@link VertexShader} that is used as the vertex shader
+	 */
+	public void setVertexShader(VertexShader vShader)
+	{
+		vertexShader = vShader;
+	}
+	
+	/**
+	 * Sets the {@link FragmentShader} used by the {@link Shader}. Unlike the {@link Consumer} given 
+	 * to the constructor, it receives its own {@link Fragment}, so it may be run on several threads 
+	 * as long as it doesn't use the GL fields of this {@link Shader}.
+	 * @param fShader {@link FragmentShader} that is used as the fragment shader
+	 */
+	public void setFragmentShader(FragmentShader fShader)
+	{
+		fragmentShader = fShader;
+		reentrant = true;
+		specialize();
+	}
+	
+	/**
+	 * Sets the {@link SpanShader} used by the {@link Shader}. While set, it replaces the fragment shader
+	 * and receives each run of consecutive pixels that passed the depth test at once, so it can shade
+	 * the run in a single loop. It receives its own {@link Span}, so it may be run on several threads.
+	 * @param sShader {@link SpanShader} that is used instead of the fragment shader, or null to use the fragment shader
+	 */
+	public void setSpanShader(SpanShader sShader)
+	{
+		spanShader = sShader;
+	}
+	
+	/**
+	 * Enables shading rows of fragments with a {@link FragmentLoop} of the fragment shader and vertex structure
+	 * alone, which is on by default. The loop is compiled separately for each pair, so its call to the fragment
+	 * shader can be inlined even when many different fragment shaders are used, and {@link Shader}s that share
+	 * a fragment shader share its loop. The result is identical to the shared loops. It isn't used by a
+	 * {@link SpanShader}.
+	 * @param enable true to use a specialized loop, false to use the loops shared by every {@link Shader}
+	 */
+	public void setSpecialized(boolean enable)
+	{
+		specialized = enable;
+		specialize();
+	}
+	
+	/**
+	 * Finds the {@link FragmentLoop} of the current fragment shader and vertex structure, if loops are specialized.
+	 */
+	private void specialize()
+	{
+		loop = specialized ? SpecializedFragmentLoop.specialize(attribute, fragmentShader) : null;
+	}
+	
+	/**
+	 * Sets the {@link Profiler} that measures the time spent in each stage of rendering, and counts the 
+	 * pixels rasterized and the fragments shaded. Measuring the time of each triangle costs a few reads of
+	 * the clock, so a {@link Shader} should only be given a profiler while its frames are being profiled.
+	 * @param profiler {@link Profiler} that is updated while rendering, or null to stop profiling
+	 */
+	public void setProfiler(Profiler profiler)
+	{
+		this.profiler = profiler;
+	}
+	
+	/**
+	 * Enables rejecting hidden geometry with a hierarchical depth buffer. The lowest depth of every
+	 * 8x8 block and every tile of {@link #depth} is kept, so whole triangles and tiles behind the
+	 * depth buffer are dropped before they are set up or binned, and the built-in rasterizer skips
+	 * the blocks of a row that are hidden before testing any pixel. The result is identical,
+	 * which helps scenes with a lot of overdraw, especially when drawn from front to back.
+	 * <p>
+	 * Depths written into {@link #depth} must only grow between clears, as they do when written 
+	 * through {@link Fragment#write(int)} or {@link Span#write(int, int)}.
+	 * @param enable true to reject hidden geometry early, false to test each pixel
+	 */
+	public void setHierarchicalDepth(boolean enable)
+	{
+		flush();
+		
+		// The pyramid reads every depth, so none may be left from an earlier generation
+		wipe(0, 0, width - 1, height - 1);
+		pyramid = enable ? new DepthPyramid(depth, width, height) : null;
+	}
+	
+	/**
+	 * Enables deferred shading through a visibility buffer. {@link #render(float[][])} then only bins the
+	 * triangle, and {@link #flush()} rasterizes each tile in two passes. The first pass keeps the depth and
+	 * the closest triangle of each pixel, and the second runs the fragment or span shader exactly once for
+	 * each visible pixel, re-evaluating the closest triangle's vertex data at the pixel. The cost of shading
+	 * no longer depends on the order of the triangles or on how many of them overlap.
+	 * <p>
+	 * Since the depth is written before shading, fragment shaders must write every fragment. Fragments that
+	 * are discarded still hide what is behind them. Rendering through {@link Graphics2D} isn't deferred.
+	 * @param enable true to shade each visible pixel once, false to shade every fragment that passes the depth test
+	 */
+	public void setDeferred(boolean enable)
+	{
+		flush();
+		visibility = null;
+		if(enable)
+		{
+			visibility = new int[width * height];
+			Arrays.fill(visibility, -1);
+		}
+	}
+	
+	/**
+	 * Sets which triangles are dropped by the winding of their vertices on screen, before any of their
+	 * pixels are set up. Every triangle is also clipped to depths from 0 to 1, and triangles without 
+	 * any area, with NaN or infinite coordinates or entirely off the screen are always dropped.
+	 * @param cull winding of the triangles that are dropped, or {@link Cull#NONE} to draw both sides
+	 */
+	public void setCulling(Cull cull)
+	{
+		this.cull = cull;
+	}
+	
+	/**
+	 * Sets the number of threads used by the built-in rasterizer. With more than one thread,
+	 * {@link #render(float[][])} only bins the triangle into screen tiles, and the tiles are 
+	 * rasterized in parallel by {@link #flush()}. Each thread works on whole tiles, so no two
+	 * threads ever write to the same part of {@link #frame} and {@link #depth}.
+	 * Fragment shaders given to the constructor read the GL fields of this {@link Shader},
+	 * so their tiles are rasterized on the calling thread instead.
+	 * @param threads number of threads, or 1 to rasterize immediately
+	 */
+	public void setParallelism(int threads)
+	{
+		flush();
+		if(pool != null)
+			pool.shutdown();
+		
+		if(threads <= 1)
+		{
+			pool = null;
+			workerFragments = null;
+			return;
+		}
+		
+		pool = new ForkJoinPool(threads);
+		workerFragments = new Fragment[threads];
+		for(int i = 0; i < threads; i++)
+			workerFragments[i] = new Fragment(attribute);
 	}
 	
+	/**
+	 * Clears the frame and depth buffers by writing zero to every pixel. The buffers are
+	 * split into bands of rows that are filled in parallel.
+	 */
 	public void clearDepth()
 	{
-		for(int i = 0; i < depth.length; i++)
+		flush();
+		Profiler profiler = this.profiler;
+		long time = profiler != null ? System.nanoTime() : 0;
+		generation = 0;
+		stale = false;
+		Arrays.fill(blockGenerations, (byte)0);
+		
+		int pixels = width * height;
+		int band = TILE_SIZE * width;
+		IntStream.range(0, (pixels + band - 1) / band).parallel().forEach((i) -> {
+			int start = i * band;
+			int end = Math.min(pixels, start + band);
+			Arrays.fill(frame, start, end, 0);
+			Arrays.fill(depth, start, end, 0.0f);
+		});
+		if(pyramid != null)
+			pyramid.reset();
+		if(profiler != null)
+			profiler.lap(Profiler.Stage.CLEAR, time);
+	}
+	
+	/**
+	 * Clears the frame and depth buffers without writing to them. Each call starts a new generation,
+	 * and the depth buffer is only cleared in blocks of 8x8 pixels, the first time a triangle reaches
+	 * each block during the generation. Blocks that no triangle reaches are never written, and the
+	 * depths themselves are kept as they are, so the depth test and its precision don't change. 
+	 * The buffers are wiped with {@link #clearDepth()} once every {@link #CLEAR_GENERATIONS} calls, 
+	 * before the generations start over.
+	 * <p>
+	 * Fragments must write their depth, for example through {@link Fragment#write(int)}. Since 
+	 * {@link #frame} still holds the colors of earlier generations, the color of a pixel must be read 
+	 * through {@link #pixel(int)}.
+	 */
+	public void clear()
+	{
+		flush();
+		if((generation & 0xFF) == CLEAR_GENERATIONS - 1)
+			clearDepth();
+		else
+		{
+			generation++;
+			stale = true;
+			if(pyramid != null)
+				pyramid.reset();
+		}
+	}
+	
+	/**
+	 * Clears the depth of every block of a rectangle that wasn't cleared yet since the last {@link #clear()}.
+	 * Blocks never cross the edge of a tile, so threads rasterizing different tiles may call it at once.
+	 * @param x0 first column of the rectangle
+	 * @param y0 first row of the rectangle
+	 * @param x1 last column of the rectangle
+	 * @param y1 last row of the rectangle
+	 */
+	void wipe(int x0, int y0, int x1, int y1)
+	{
+		byte generation = this.generation;
+		for(int by = y0 >> CLEAR_BLOCK_BITS; by <= y1 >> CLEAR_BLOCK_BITS; by++)
 		{
-			frame[i] = 0;
-			depth[i] = 0.0f;
+			for(int bx = x0 >> CLEAR_BLOCK_BITS; bx <= x1 >> CLEAR_BLOCK_BITS; bx++)
+			{
+				int b = bx + by * blocksX;
+				if(blockGenerations[b] == generation)
+					continue;
+				blockGenerations[b] = generation;
+				int left = bx << CLEAR_BLOCK_BITS, right = Math.min(width, left + (1 << CLEAR_BLOCK_BITS));
+				for(int y = by << CLEAR_BLOCK_BITS, end = Math.min(height, y + (1 << CLEAR_BLOCK_BITS)); y < end; y++)
+					Arrays.fill(depth, left + y * width, right + y * width, 0.0f);
+			}
 		}
 	}
 	
+	/**
+	 * Returns the color of a pixel, or 0 if nothing was drawn at the pixel since the last clear.
+	 * Until {@link #clear()} is called, this is the same as reading {@link #frame}. Afterwards, only
+	 * pixels whose depth was written in the current generation are drawn.
+	 * @param index index of the pixel within {@link #frame}
+	 * @return RGB color of the pixel
+	 */
+	public int pixel(int index)
+	{
+		if(generation == 0)
+			return frame[index];
+		int block = (index % width >> CLEAR_BLOCK_BITS) + (index / width >> CLEAR_BLOCK_BITS) * blocksX;
+		return blockGenerations[block] == generation && depth[index] > 0.0f ? frame[index] : 0;
+	}
+	
+	/**
+	 * Draws the frame rendered by the built-in rasterizer through {@link Graphics2D}, after flushing it.
+	 * The image drawn shares {@link #frame}, so the whole frame is handed over with a single 
+	 * {@link Graphics2D#drawImage} instead of being copied into a strip for every row of each triangle.
+	 * Every pixel is drawn, so the destination doesn't need to be cleared beforehand.
+	 * <p>
+	 * After a {@link #clear()}, the pixels that weren't drawn since are first set to 0 in {@link #frame},
+	 * which is done once per generation, in bands of rows that are resolved in parallel.
+	 * @param gl reference to {@link Graphics2D}
+	 * @param x horizontal position of the frame
+	 * @param y vertical position of the frame
+	 */
+	public void present(Graphics2D gl, int x, int y)
+	{
+		present(gl, x, y, width, height, Upscale.NEAREST);
+	}
+	
+	/**
+	 * Draws the frame rendered by the built-in rasterizer through {@link Graphics2D}, stretched over an area
+	 * that may be larger than the resolution of this {@link Shader}. This lets frames be rendered at a lower
+	 * resolution than the window, such as one chosen by a {@link ResolutionController}. The frame is flushed
+	 * and resolved as it is by {@link #present(Graphics2D, int, int)}.
+	 * @param gl reference to {@link Graphics2D}
+	 * @param x horizontal position of the area
+	 * @param y vertical position of the area
+	 * @param w width of the area
+	 * @param h height of the area
+	 * @param upscale filter used to stretch the frame over the area
+	 */
+	public void present(Graphics2D gl, int x, int y, int w, int h, Upscale upscale)
+	{
+		flush();
+		Profiler profiler = this.profiler;
+		long time = profiler != null ? System.nanoTime() : 0;
+		resolve();
+		upscale.draw(gl, image, x, y, w, h);
+		if(profiler != null)
+			profiler.lap(Profiler.Stage.PRESENT, time);
+	}
+	
+	/**
+	 * Hands over the finished frame as an image, and renders the next frames into another image.
+	 * The frame is flushed and resolved as it is by {@link #present(Graphics2D, int, int)}, so it can be
+	 * drawn on another thread while the next frame is rendered. The next frame must start with a clear,
+	 * since the image swapped in still holds the colors of whichever frame it was last used for.
+	 * An image with another resolution, left over from before a {@link #setResolution(int, int)}, is fitted
+	 * to the current resolution first, reusing its pixels when there are enough of them.
+	 * @param next image from {@link #createFrame(int, int)}
+	 * @return image of the finished frame, with the resolution it was rendered at
+	 */
+	BufferedImage swapFrame(BufferedImage next)
+	{
+		flush();
+		Profiler profiler = this.profiler;
+		long time = profiler != null ? System.nanoTime() : 0;
+		resolve();
+		if(profiler != null)
+			profiler.lap(Profiler.Stage.PRESENT, time);
+		BufferedImage finished = image;
+		image = fitFrame(next);
+		frame = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+		
+		// Pixels that aren't drawn before the next presentation are zeroed, even without a lazy clear
+		stale = true;
+		return finished;
+	}
+	
+	/**
+	 * Creates an image that can hold the frame of a {@link Shader}. 
+	 * Its pixels are stored in a single int array in the same format as {@link #frame}.
+	 * @param w horizontal resolution of the frame
+	 * @param h vertical resolution of the frame
+	 * @return image of the frame
+	 */
+	BufferedImage createFrame(int w, int h)
+	{
+		WritableRaster frameRaster = Raster.createWritableRaster(cm.createCompatibleSampleModel(w, h), 
+				new DataBufferInt(w * h), null);
+		return new BufferedImage(cm, frameRaster, false, null);
+	}
+	
+	/**
+	 * Returns an image with the resolution of this {@link Shader}. The given image is returned when it
+	 * already has that resolution. Otherwise its pixels are reused by a new image if there are enough
+	 * of them, with rows {@link #width} pixels long, or a new frame is created.
+	 * @param frameImage image from {@link #createFrame(int, int)}, or null
+	 * @return image of a frame with the resolution of this {@link Shader}
+	 */
+	private BufferedImage fitFrame(BufferedImage frameImage)
+	{
+		if(frameImage == null)
+			return createFrame(width, height);
+		if(frameImage.getWidth() == width && frameImage.getHeight() == height)
+			return frameImage;
+		
+		DataBufferInt data = (DataBufferInt)frameImage.getRaster().getDataBuffer();
+		if(data.getSize() < width * height)
+			return createFrame(width, height);
+		WritableRaster frameRaster = Raster.createWritableRaster(cm.createCompatibleSampleModel(width, height), data, null);
+		return new BufferedImage(cm, frameRaster, false, null);
+	}
+	
+	/**
+	 * Sets the pixels of {@link #frame} that weren't drawn since the last clear to 0, if there may be any.
+	 * The frame is split into bands of rows that are resolved in parallel.
+	 */
+	private void resolve()
+	{
+		if(!stale)
+			return;
+		// Pixels of blocks that weren't wiped during this generation weren't drawn either
+		IntStream.range(0, (height + TILE_SIZE - 1) / TILE_SIZE).parallel().forEach((i) -> {
+			for(int y = i * TILE_SIZE, end = Math.min(height, y + TILE_SIZE); y < end; y++)
+			{
+				int blocks = (y >> CLEAR_BLOCK_BITS) * blocksX;
+				for(int x = 0, index = y * width; x < width; x++, index++)
+					if(blockGenerations[blocks + (x >> CLEAR_BLOCK_BITS)] != generation || depth[index] <= 0.0f)
+						frame[index] = 0;
+			}
+		});
+		stale = false;
+	}
+	
 	/**
 	 * Renders a vertex array using this {@link Shader}.
 	 * @param gl reference to {@link Graphics2D} 
@@ -176,22 +684,103 @@ public class Shader implements Paint, PaintContext
 	public void render(Graphics2D gl, float[][] vertexIn)
 	{
 		// Apply vertex shader
+		Context context = begin();
+		shadeVertices(vertexIn, context.vertices);
+		lap(context, Profiler.Stage.VERTEX);
+		draw(context, context.vertices, gl);
+	}
+	
+	/**
+	 * Renders the triangles of an indexed vertex buffer using this {@link Shader}.
+	 * Each vertex goes through the vertex shader once, no matter how many triangles share it.
+	 * @param gl reference to {@link Graphics2D} 
+	 * @param vertices interleaved vertices, each {@link ShaderProperty#inputSize} floats long
+	 * @param indices index of the vertex used for each corner of the triangles
+	 * @param primitive how the indices are assembled into triangles
+	 */
+	public void render(Graphics2D gl, float[] vertices, int[] indices, Primitive primitive)
+	{
+		Context context = begin();
+		context.nextDraw(vertices.length / Math.max(1, attribute.inputSize));
+		for(int t = 0, count = primitive.count(indices.length); t < count; t++)
+		{
+			for(int i = 0; i < 3; i++)
+				context.assembled[i] = transform(context, vertices, indices[primitive.index(t, i)]);
+			lap(context, Profiler.Stage.VERTEX);
+			draw(context, context.assembled, gl);
+		}
+	}
+	
+	/**
+	 * Renders the triangles of an indexed {@link VertexBuffer} using this {@link Shader}.
+	 * The vertices are read straight from the buffer, and recently used vertices aren't shaded again.
+	 * @param gl reference to {@link Graphics2D} 
+	 * @param vertices vertices, laid out as described by the {@link ShaderProperty} of this {@link Shader}
+	 * @param indices index of the vertex used for each corner of the triangles, from the position to the limit
+	 * @param primitive how the indices are assembled into triangles
+	 */
+	public void render(Graphics2D gl, VertexBuffer vertices, IntBuffer indices, Primitive primitive)
+	{
+		if(!matches(vertices))
+			return;
+		Context context = begin();
+		context.nextDraw(0);
+		for(int t = 0, base = indices.position(), count = primitive.count(indices.remaining()); t < count; t++)
+		{
+			for(int i = 0; i < 3; i++)
+				context.assembled[i] = transform(context, vertices, indices.get(base + primitive.index(t, i)), i);
+			lap(context, Profiler.Stage.VERTEX);
+			draw(context, context.assembled, gl);
+		}
+	}
+	
+	/**
+	 * Fills a triangle through {@link Graphics2D}, after copying it into {@link #vertexOut}.
+	 * The interpolation divides by the height between the first and last vertex, so the vertices 
+	 * are rotated until that height isn't 0, which doesn't change the triangle or its winding.
+	 * @param context {@link Context} of the calling thread
+	 * @param gl reference to {@link Graphics2D} 
+	 * @param vertices result of the vertex shader for each vertex, forming a triangle with some area
+	 */
+	private void fill(Context context, Graphics2D gl, Vertex[] vertices)
+	{
+		int n = attribute.numVertex;
+		int first = 0;
+		while(first < n - 1 && vertices[first].y == vertices[(first + n - 1) % n].y)
+			first++;
+		for(int i = 0; i < n; i++)
+		{
+			Vertex v = vertices[(first + i) % n];
+			vertexOut[i].x = v.x;
+			vertexOut[i].y = v.y;
+			vertexOut[i].z = v.z;
+			System.arraycopy(v.attributes, 0, vertexOut[i].attributes, 0, v.attributes.length);
+		}
+		fill(context, gl);
+	}
+	
+	/**
+	 * Fills the triangle held by {@link #vertexOut} through {@link Graphics2D}.
+	 * @param context {@link Context} of the calling thread
+	 * @param gl reference to {@link Graphics2D} 
+	 */
+	private void fill(Context context, Graphics2D gl)
+	{
 		for(int i = 0; i < attribute.numVertex; i++)
 		{
-			vertexShader.accept(vertexIn[i], vertexOut[i]);
-			XPos[i] = GL_X;
-			YPos[i] = GL_Y;
-			ZPos[i] = GL_Z;
-			xs[i] = Math.round(GL_X * width);
-			ys[i] = Math.round(GL_Y * height);
+			XPos[i] = vertexOut[i].x;
+			YPos[i] = vertexOut[i].y;
+			ZPos[i] = vertexOut[i].z;
+			xs[i] = Math.round(XPos[i] * width);
+			ys[i] = Math.round(YPos[i] * height);
 		}
 		
 		// Calculate vectors between vertices
-		vs = vertexOut[0];
+		vs = vertexOut[0].attributes;
 		for(int i = 0; i < attribute.outputSize; i++)
 		{
-			svec[i] = vertexOut[1][i] - vs[i];
-			tvec[i] = vertexOut[2][i] - vs[i];
+			svec[i] = vertexOut[1].attributes[i] - vs[i];
+			tvec[i] = vertexOut[2].attributes[i] - vs[i];
 		}
 		dsvec = ZPos[1] - ZPos[0];
 		dtvec = ZPos[2] - ZPos[0];
@@ -206,11 +795,435 @@ public class Shader implements Paint, PaintContext
 			cache_vec[i] = (svec[i] - svecy * t_invY * tvec[i]) * w_scale * s_factor;
 		dcvec = (dsvec - svecy * t_invY * dtvec) * w_scale * s_factor;
 		
+		// Change along the vertical axis, for choosing mipmap levels
+		float ex1 = (XPos[1] - XPos[0]) * width, ey1 = svecy * height;
+		float ex2 = (XPos[2] - XPos[0]) * width, ey2 = (YPos[2] - YPos[0]) * height;
+		float inv = 1.0f / (ex1 * ey2 - ex2 * ey1);
+		for(int i = 0; i < attribute.outputSize; i++)
+			ddy[i] = (tvec[i] * ex1 - svec[i] * ex2) * inv;
+		
+		// Drop the triangle if every pixel it covers is already above it
+		int minX = Math.max(0, Math.min(xs[0], Math.min(xs[1], xs[2])));
+		int minY = Math.max(0, Math.min(ys[0], Math.min(ys[1], ys[2])));
+		int maxX = Math.min(width - 1, Math.max(xs[0], Math.max(xs[1], xs[2])));
+		int maxY = Math.min(height - 1, Math.max(ys[0], Math.max(ys[1], ys[2])));
+		if(minX <= maxX && minY <= maxY)
+			wipe(minX, minY, maxX, maxY);
+		if(pyramid != null && minX <= maxX && minY <= maxY)
+		{
+			// The depth is accumulated along each strip, which adds a rounding error for each pixel
+			float maxDepth = Math.max(ZPos[0], Math.max(ZPos[1], ZPos[2]));
+			maxDepth += Math.ulp(maxDepth) * (width + height);
+			if(pyramid.occludes(minX, minY, maxX, maxY, maxDepth))
+				return;
+		}
+		
 		// Render the triangle
+		lap(context, Profiler.Stage.SETUP);
+		fragment.frame = frame;
+		fragment.depthBuffer = depth;
+		fragment.span.frame = frame;
+		fragment.span.depthBuffer = depth;
+		fragment.ddx = cache_vec;
+		fragment.ddy = ddy;
+		fragment.span.ddy = ddy;
 		gl.setPaint( this );
 		gl.fillPolygon(xs, ys, attribute.numVertex);
+		if(pyramid != null && minX <= maxX && minY <= maxY)
+			pyramid.invalidate(minX, minY, maxX, maxY);
+		lap(context, Profiler.Stage.RASTER);
 	}
-
+	
+	/**
+	 * Renders a vertex array using the built-in rasterizer of this {@link Shader}.
+	 * The triangle is written directly into {@link #frame} and {@link #depth} without
+	 * going through Java2D, so it can be used when running with java.awt.headless=true.
+	 * When rendering in parallel or deferred, the triangle is only binned and is drawn by {@link #flush()}.
+	 * <p>
+	 * This method may be called from several threads at once when both shaders were set through
+	 * {@link #setVertexShader(VertexShader)} and {@link #setFragmentShader(FragmentShader)}. 
+	 * The vertices and triangle setup of each thread are computed at the same time, but triangles
+	 * rendered immediately are rasterized one at a time, so triangles from different threads may
+	 * overlap and the result is the same as rendering them one after the other. To rasterize in
+	 * parallel, use {@link #setParallelism(int)} instead.
+	 * @param vertexIn array of vertices
+	 */
+	public void render(float[][] vertexIn)
+	{
+		Context context = begin();
+		shadeVertices(vertexIn, context.vertices);
+		lap(context, Profiler.Stage.VERTEX);
+		draw(context, context.vertices, null);
+	}
+	
+	/**
+	 * Renders the triangles of an indexed vertex buffer using the built-in rasterizer of this {@link Shader}.
+	 * Each vertex goes through the vertex shader once, and the result is reused by every triangle that 
+	 * shares it. Otherwise, each triangle is rendered the same way as {@link #render(float[][])}.
+	 * @param vertices interleaved vertices, each {@link ShaderProperty#inputSize} floats long
+	 * @param indices index of the vertex used for each corner of the triangles
+	 * @param primitive how the indices are assembled into triangles
+	 */
+	public void render(float[] vertices, int[] indices, Primitive primitive)
+	{
+		Context context = begin();
+		context.nextDraw(vertices.length / Math.max(1, attribute.inputSize));
+		for(int t = 0, count = primitive.count(indices.length); t < count; t++)
+		{
+			for(int i = 0; i < 3; i++)
+				context.assembled[i] = transform(context, vertices, indices[primitive.index(t, i)]);
+			lap(context, Profiler.Stage.VERTEX);
+			draw(context, context.assembled, null);
+		}
+	}
+	
+	/**
+	 * Renders the triangles of an indexed {@link VertexBuffer} using the built-in rasterizer of this {@link Shader}.
+	 * The vertices are read straight from the buffer, which may be mapped from a file, so drawing a mesh
+	 * doesn't allocate anything for each of its vertices. Each thread keeps the results of the vertex shader 
+	 * for the last {@value #VERTEX_CACHE_SIZE} vertex slots, so a vertex shared by nearby triangles is only shaded once.
+	 * Otherwise, each triangle is rendered the same way as {@link #render(float[][])}.
+	 * @param vertices vertices, laid out as described by the {@link ShaderProperty} of this {@link Shader}
+	 * @param indices index of the vertex used for each corner of the triangles, from the position to the limit
+	 * @param primitive how the indices are assembled into triangles
+	 */
+	public void render(VertexBuffer vertices, IntBuffer indices, Primitive primitive)
+	{
+		if(!matches(vertices))
+			return;
+		Context context = begin();
+		context.nextDraw(0);
+		for(int t = 0, base = indices.position(), count = primitive.count(indices.remaining()); t < count; t++)
+		{
+			for(int i = 0; i < 3; i++)
+				context.assembled[i] = transform(context, vertices, indices.get(base + primitive.index(t, i)), i);
+			lap(context, Profiler.Stage.VERTEX);
+			draw(context, context.assembled, null);
+		}
+	}
+	
+	/**
+	 * Returns whether the vertices of a {@link VertexBuffer} have the size expected by the vertex shader.
+	 * @param vertices {@link VertexBuffer} that is about to be drawn
+	 * @return true if the buffer can be drawn
+	 */
+	private boolean matches(VertexBuffer vertices)
+	{
+		if(vertices.property.inputSize == attribute.inputSize)
+			return true;
+		System.err.println( "Vertex buffer doesn't match the vertex size of the shader!" );
+		return false;
+	}
+	
+	/**
+	 * Assembles the result of the vertex shader into triangles, dropping those that face away, have no area
+	 * or can't be seen, and clipping those that cross the near or far plane or reach far past the screen.
+	 * Each remaining triangle is filled through {@link Graphics2D}, or passed to the built-in rasterizer.
+	 * @param context {@link Context} of the calling thread
+	 * @param vertices result of the vertex shader for each vertex
+	 * @param gl reference to {@link Graphics2D}, or null to use the built-in rasterizer
+	 */
+	private void draw(Context context, Vertex[] vertices, Graphics2D gl)
+	{
+		Clipper clipper = context.clipper;
+		int count = clipper.assemble(vertices, width, height, cull);
+		for(int i = 0; i < count; i++)
+			context.nearest = Math.max(context.nearest, clipper.polygon[i].z);
+		
+		// Clipped polygons are drawn as a fan of triangles
+		Vertex[] fan = context.fan;
+		for(int i = 2; i < count; i++)
+		{
+			fan[0] = clipper.polygon[0];
+			fan[1] = clipper.polygon[i - 1];
+			fan[2] = clipper.polygon[i];
+			if(gl != null)
+				fill(context, gl, fan);
+			else
+				rasterize(context, fan);
+		}
+		lap(context, Profiler.Stage.SETUP);
+	}
+	
+	/**
+	 * Starts tracking the greatest depth of the triangles that the calling thread draws,
+	 * which is then returned by {@link #nearest()}. Triangles that are dropped aren't counted.
+	 */
+	void resetNearest()
+	{
+		context().nearest = Float.NEGATIVE_INFINITY;
+	}
+	
+	/**
+	 * Returns the greatest depth of the triangles drawn by the calling thread since {@link #resetNearest()}.
+	 * @return depth of the closest vertex, or negative infinity if nothing was drawn
+	 */
+	float nearest()
+	{
+		return context().nearest;
+	}
+	
+	/**
+	 * Rasterizes a triangle immediately, or bins it when rendering in parallel or deferred.
+	 * @param context {@link Context} of the calling thread
+	 * @param vertices result of the vertex shader for each vertex
+	 */
+	private void rasterize(Context context, Vertex[] vertices)
+	{
+		if(pool == null && visibility == null)
+		{
+			Triangle t = context.triangle;
+			if(t.setup(vertices, width, height))
+			{
+				lap(context, Profiler.Stage.SETUP);
+				rasterize(context, t);
+			}
+			return;
+		}
+		bin(vertices);
+	}
+	
+	/**
+	 * Rasterizes a triangle that the calling thread has set up into the frame and depth buffers, unless 
+	 * the {@link DepthPyramid} shows it is hidden. Triangles from different threads may overlap and share 
+	 * blocks of the pyramid, so they are rasterized one at a time, like binning and {@link #flush()}.
+	 * @param context {@link Context} of the calling thread
+	 * @param t {@link Triangle} that was set up
+	 */
+	private synchronized void rasterize(Context context, Triangle t)
+	{
+		if(pyramid != null && pyramid.occludes(t.minX, t.minY, t.maxX, t.maxY, t.maxDepth))
+			return;
+		context.fragment.frame = frame;
+		context.fragment.depthBuffer = depth;
+		t.rasterize(context.fragment, this, 0, 0, width, height);
+		lap(context, Profiler.Stage.RASTER);
+	}
+	
+	/**
+	 * Returns the result of the vertex shader for a vertex of an indexed vertex buffer, 
+	 * only running the vertex shader the first time the vertex is used during the current draw.
+	 * @param context {@link Context} of the calling thread
+	 * @param vertices interleaved vertices
+	 * @param index index of the vertex
+	 * @return transformed {@link Vertex}
+	 */
+	private Vertex transform(Context context, float[] vertices, int index)
+	{
+		if(context.stamps[index] != context.draw)
+		{
+			System.arraycopy(vertices, index * attribute.inputSize, context.input, 0, attribute.inputSize);
+			vertexShader.shade(context.input, context.transformed[index]);
+			context.stamps[index] = context.draw;
+		}
+		return context.transformed[index];
+	}
+	
+	/**
+	 * Returns the result of the vertex shader for a vertex of a {@link VertexBuffer}, only running 
+	 * the vertex shader if the vertex isn't in the cache of the calling thread for the current draw.
+	 * A vertex whose slot still holds an earlier corner of the same triangle is shaded without being
+	 * cached, since replacing the slot would change that corner too.
+	 * @param context {@link Context} of the calling thread
+	 * @param vertices vertex buffer
+	 * @param index index of the vertex
+	 * @param corner corner of the triangle being assembled that the vertex is used for
+	 * @return transformed {@link Vertex}
+	 */
+	private Vertex transform(Context context, VertexBuffer vertices, int index, int corner)
+	{
+		int slot = index & (VERTEX_CACHE_SIZE - 1);
+		long tag = ((long)context.draw << 32) | (index & 0xFFFFFFFFL);
+		if(context.tags[slot] != tag)
+		{
+			Vertex vertex = context.cached[slot];
+			for(int i = 0; i < corner; i++)
+				if(context.assembled[i] == vertex)
+					vertex = context.vertices[corner];
+			
+			vertices.get(index, context.input);
+			vertexShader.shade(context.input, vertex);
+			if(vertex != context.cached[slot])
+				return vertex;
+			context.tags[slot] = tag;
+		}
+		return context.cached[slot];
+	}
+	
+	/**
+	 * Sets up a triangle and adds it to the tiles it overlaps.
+	 * @param vertices result of the vertex shader for each vertex
+	 */
+	private synchronized void bin(Vertex[] vertices)
+	{
+		// Keep the setup of the triangle until the tiles are rasterized
+		if(triangleCount == triangles.length)
+		{
+			triangles = Arrays.copyOf(triangles, Math.max(16, triangleCount * 2));
+			for(int i = triangleCount; i < triangles.length; i++)
+				triangles[i] = new Triangle(attribute);
+		}
+		Triangle t = triangles[triangleCount];
+		if(!t.setup(vertices, width, height))
+			return;
+		t.id = triangleCount;
+		
+		// Add the triangle to every tile its bounding box overlaps, unless it's hidden in that tile
+		for(int ty = t.minY / TILE_SIZE; ty <= t.maxY / TILE_SIZE; ty++)
+		{
+			for(int tx = t.minX / TILE_SIZE; tx <= t.maxX / TILE_SIZE; tx++)
+			{
+				if(pyramid != null && pyramid.tile(tx, ty) >= t.maxDepth)
+					continue;
+				
+				int tile = tx + ty * tilesX;
+				if(binSize[tile] == bins[tile].length)
+					bins[tile] = Arrays.copyOf(bins[tile], binSize[tile] * 2);
+				bins[tile][binSize[tile]++] = triangleCount;
+			}
+		}
+		triangleCount++;
+	}
+	
+	/**
+	 * Rasterizes all of the triangles that were binned since the last flush.
+	 * Each thread takes the next tile that hasn't been rasterized yet and draws its triangles
+	 * in the order they were rendered, then shades the tile's visible pixels when deferred. 
+	 * Does nothing when rendering immediately.
+	 */
+	public synchronized void flush()
+	{
+		if(triangleCount == 0)
+			return;
+		
+		Profiler profiler = this.profiler;
+		long time = profiler != null ? System.nanoTime() : 0;
+		AtomicInteger nextTile = new AtomicInteger();
+		if(pool != null && (reentrant || spanShader != null))
+		{
+			ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workerFragments.length];
+			for(int i = 0; i < tasks.length; i++)
+			{
+				Fragment f = workerFragments[i];
+				tasks[i] = pool.submit(() -> rasterizeTiles(f, nextTile));
+			}
+			for(ForkJoinTask<?> task : tasks)
+				task.join();
+		}
+		else
+			rasterizeTiles(fragment, nextTile);
+		
+		triangleCount = 0;
+		Arrays.fill(binSize, 0, tilesX * tilesY, 0);
+		if(profiler != null)
+			profiler.lap(Profiler.Stage.RASTER, time);
+	}
+	
+	/**
+	 * Rasterizes tiles until there are none left.
+	 * @param f {@link Fragment} owned by the calling thread
+	 * @param nextTile index of the next tile that hasn't been rasterized
+	 */
+	private void rasterizeTiles(Fragment f, AtomicInteger nextTile)
+	{
+		f.frame = frame;
+		f.depthBuffer = depth;
+		
+		for(int tile = nextTile.getAndIncrement(); tile < tilesX * tilesY; tile = nextTile.getAndIncrement())
+		{
+			int x = (tile % tilesX) * TILE_SIZE;
+			int y = (tile / tilesX) * TILE_SIZE;
+			for(int i = 0; i < binSize[tile]; i++)
+				triangles[bins[tile][i]].rasterize(f, this, x, y, x + TILE_SIZE, y + TILE_SIZE);
+			if(visibility != null)
+				shadeTile(f, x, y, Math.min(width, x + TILE_SIZE), Math.min(height, y + TILE_SIZE));
+		}
+	}
+	
+	/**
+	 * Shades each pixel of a tile that a triangle is visible at, then marks the pixel as shaded.
+	 * Consecutive pixels of a row that show the same triangle are shaded together.
+	 * @param f {@link Fragment} owned by the calling thread
+	 * @param x0 first column of the tile
+	 * @param y0 first row of the tile
+	 * @param x1 column after the last column of the tile
+	 * @param y1 row after the last row of the tile
+	 */
+	private void shadeTile(Fragment f, int x0, int y0, int x1, int y1)
+	{
+		for(int y = y0; y < y1; y++)
+		{
+			int offset = y * width;
+			for(int x = x0; x < x1; )
+			{
+				int id = visibility[x + offset];
+				if(id < 0)
+				{
+					x++;
+					continue;
+				}
+				
+				int end = x + 1;
+				while(end < x1 && visibility[end + offset] == id)
+					end++;
+				triangles[id].shadeVisible(f, this, y, x, end - 1);
+				Arrays.fill(visibility, x + offset, end + offset, -1);
+				x = end;
+			}
+		}
+	}
+	
+	/**
+	 * Applies the vertex shader to each vertex of the vertex array.
+	 * @param vertexIn array of vertices
+	 * @param out {@link Vertex} that receives the result for each vertex
+	 */
+	private void shadeVertices(float[][] vertexIn, Vertex[] out)
+	{
+		for(int i = 0; i < attribute.numVertex; i++)
+			vertexShader.shade(vertexIn[i], out[i]);
+	}
+	
+	/**
+	 * Returns the rendering state of the calling thread at the start of a draw, and starts timing the draw when profiling.
+	 * @return {@link Context} of the calling thread
+	 */
+	private Context begin()
+	{
+		Context context = context();
+		if(profiler != null)
+			context.lap = System.nanoTime();
+		return context;
+	}
+	
+	/**
+	 * Adds the time since the last measurement of the calling thread to a stage of the {@link Profiler}, if there is one.
+	 * @param context {@link Context} of the calling thread
+	 * @param stage stage that ran since the last measurement
+	 */
+	private void lap(Context context, Profiler.Stage stage)
+	{
+		Profiler profiler = this.profiler;
+		if(profiler != null)
+			context.lap = profiler.lap(stage, context.lap);
+	}
+	
+	/**
+	 * Returns the rendering state of the calling thread, creating it if the thread hasn't
+	 * rendered with the current {@link ShaderProperty} yet.
+	 * @return {@link Context} of the calling thread
+	 */
+	private Context context()
+	{
+		Context context = contexts.get();
+		if(context == null || context.property != attribute)
+		{
+			context = new Context(attribute);
+			contexts.set(context);
+		}
+		return context;
+	}
+	
 	/**
 	 * Applies fragment shading to currently rendered vertex array. The {@link Raster} is always requested in horizontal strips. 
 	 * Instead of returning a new {@link Raster} each time, the function returns the same {@link Raster} with the contents of the buffer modified.
@@ -232,7 +1245,37 @@ public class Shader implements Paint, PaintContext
 			interpolated[y] = vs[y] + vxs * svec[y] + vyt * tvec[y] - cache_vec[y];
 		GL_DEPTH = ZPos[0] + vxs * dsvec + vyt * dtvec - dcvec;
 		
+		if(spanShader != null)
+		{
+			// Shade the runs of the strip that pass the depth test, starting from the first pixel
+			Span span = fragment.span;
+			for( y = 0; y < attribute.outputSize; y++)
+				span.origin[y] = interpolated[y] + cache_vec[y];
+			span.steps = cache_vec;
+			span.depthOrigin = GL_DEPTH + dcvec;
+			span.depthStep = dcvec;
+			int shaded = span.shadeRuns(spanShader, GL_INDEX, w, 0.0f);
+			if(profiler != null)
+				profiler.count(w, shaded);
+			for( x = 0; x < w; x++ )
+				buffer[x] = pixel(GL_INDEX + x);
+			return raster;
+		}
+		
+		if(loop != null)
+		{
+			// The fragment shader may change GL_INDEX, so the pixels are copied from the start of the strip
+			int start = GL_INDEX;
+			int shaded = loop.shadeStrip(fragment, fragmentShader, interpolated, cache_vec, start, w, GL_DEPTH, dcvec);
+			if(profiler != null)
+				profiler.count(w, shaded);
+			for( x = 0; x < w; x++ )
+				buffer[x] = pixel(start + x);
+			return raster;
+		}
+		
 		// Increment variables for the remainder of the strip
+		int shaded = 0;
 		for( x = 0; x < w; x++, GL_INDEX++ )
 		{
 			for( y = 0; y < attribute.outputSize; y++)
@@ -241,14 +1284,21 @@ public class Shader implements Paint, PaintContext
 			
 			// Check depth buffer and apply fragment shader at coordinates
 			if(depth[GL_INDEX] < GL_DEPTH)
-				fragmentShader.accept( interpolated );
+			{
+				fragment.index = GL_INDEX;
+				fragment.depth = GL_DEPTH;
+				fragmentShader.shade( fragment );
+				shaded++;
+			}
 			
-			buffer[x] = frame[GL_INDEX];
+			buffer[x] = pixel(GL_INDEX);
 		}
+		if(profiler != null)
+			profiler.count(w, shaded);
 		
 		return raster;
 	}
-
+	
 	/**
 	 * Method used by {@link Paint} to receive {@link PaintContext}. 
 	 * {@link Shader} implements {@link Paint} and {@link PaintContext}, which as
@@ -283,4 +1333,198 @@ public class Shader implements Paint, PaintContext
 	 */
 	@Override
 	public ColorModel getColorModel() { return cm; }
+	
+	/**
+	 * Defines which triangles are dropped by the winding of their vertices on screen,
+	 * where the y axis points down the screen.
+	 */
+	public static enum Cull
+	{
+		/** Triangles are drawn no matter their winding */
+		NONE,
+		/** Triangles whose vertices go clockwise on screen are dropped */
+		CLOCKWISE,
+		/** Triangles whose vertices go counter-clockwise on screen are dropped */
+		COUNTER_CLOCKWISE
+	}
+	
+	/**
+	 * Filters used to stretch a frame over an area larger than its resolution.
+	 */
+	public static enum Upscale
+	{
+		/** Each pixel of the area takes the color of the closest pixel of the frame, which is the cheapest to draw */
+		NEAREST(RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR),
+		/** Each pixel of the area blends the four closest pixels of the frame, which hides the blocks of low resolutions */
+		BILINEAR(RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		
+		/** Value of {@link RenderingHints#KEY_INTERPOLATION} used when the frame is stretched by {@link Graphics2D} */
+		private final Object hint;
+		/** Scaler that stretches frames for {@link #BILINEAR} on each presenting thread */
+		private static final ThreadLocal<BilinearScaler> scalers = ThreadLocal.withInitial(BilinearScaler::new);
+		
+		/**
+		 * Creates a filter drawn with the given interpolation.
+		 * @param hint value of {@link RenderingHints#KEY_INTERPOLATION}
+		 */
+		private Upscale(Object hint)
+		{
+			this.hint = hint;
+		}
+		
+		/**
+		 * Draws an image stretched over an area through {@link Graphics2D}. An image the size of the area
+		 * is drawn without scaling. {@link #NEAREST} is left to {@link Graphics2D}. Frames of a {@link Shader},
+		 * and other RGB images, are stretched by {@link #BILINEAR} into an image kept for the calling thread, in bands of rows that
+		 * are stretched in parallel, which is several times faster than the software bilinear filter of
+		 * {@link Graphics2D}. Other images are stretched by {@link Graphics2D}, whose interpolation hint is
+		 * restored afterwards.
+		 * @param gl reference to {@link Graphics2D}
+		 * @param frameImage image that is drawn, such as a frame handed over by a {@link FramePipeline}
+		 * @param x horizontal position of the area
+		 * @param y vertical position of the area
+		 * @param w width of the area
+		 * @param h height of the area
+		 */
+		public void draw(Graphics2D gl, BufferedImage frameImage, int x, int y, int w, int h)
+		{
+			if(frameImage.getWidth() == w && frameImage.getHeight() == h)
+			{
+				gl.drawImage(frameImage, x, y, null);
+				return;
+			}
+			if(this == BILINEAR && BilinearScaler.accepts(frameImage))
+			{
+				gl.drawImage(scalers.get().stretch(frameImage, w, h), x, y, null);
+				return;
+			}
+			
+			Object previous = gl.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+			gl.setRenderingHint(RenderingHints.KEY_INTERPOLATION, hint);
+			gl.drawImage(frameImage, x, y, w, h, null);
+			if(previous != null)
+				gl.setRenderingHint(RenderingHints.KEY_INTERPOLATION, previous);
+		}
+	}
+	
+	/**
+	 * Defines how the indices of an index buffer are assembled into triangles.
+	 */
+	public static enum Primitive
+	{
+		/** Every three indices form a separate triangle */
+		TRIANGLES,
+		/** Every index after the first two forms a triangle with the two indices before it */
+		TRIANGLE_STRIP;
+		
+		/**
+		 * Returns the number of triangles formed by an index buffer.
+		 * @param indices number of indices
+		 * @return number of triangles
+		 */
+		int count(int indices)
+		{
+			return this == TRIANGLES ? indices / 3 : Math.max(0, indices - 2);
+		}
+		
+		/**
+		 * Returns the position within the index buffer of a corner of a triangle.
+		 * Every other triangle of a strip has its first two corners swapped, so all of them have the same winding.
+		 * @param triangle index of the triangle
+		 * @param corner corner of the triangle, from 0 to 2
+		 * @return position of the corner's index within the index buffer
+		 */
+		int index(int triangle, int corner)
+		{
+			if(this == TRIANGLES)
+				return triangle * 3 + corner;
+			if(corner < 2 && (triangle & 1) != 0)
+				corner ^= 1;
+			return triangle + corner;
+		}
+	}
+	
+	/**
+	 * Holds the state used by a single thread while rendering with the built-in rasterizer.
+	 */
+	private static class Context
+	{
+		/** {@link ShaderProperty} that the state was created for */
+		final ShaderProperty property;
+		/** Result of the vertex shader for each vertex */
+		final Vertex[] vertices;
+		/** {@link Triangle} that is set up from the vertices */
+		final Triangle triangle;
+		/** {@link Fragment} that is passed to the fragment shader */
+		final Fragment fragment;
+		
+		/** Input of the vertex shader when reading from a vertex buffer */
+		final float[] input;
+		/** Vertices of the triangle being assembled from an index buffer */
+		final Vertex[] assembled;
+		/** Culls and clips each triangle before it is rasterized */
+		final Clipper clipper;
+		/** Vertices of the triangle of a clipped polygon being drawn */
+		final Vertex[] fan;
+		/** Greatest depth of the triangles drawn since {@link Shader#resetNearest()} */
+		float nearest = Float.NEGATIVE_INFINITY;
+		/** Time of the last measurement of the {@link Profiler}, from {@link System#nanoTime()} */
+		long lap;
+		/** Results of the vertex shader for each vertex of the current vertex buffer */
+		Vertex[] transformed = new Vertex[0];
+		/** Draw during which each vertex of {@link #transformed} was last shaded */
+		int[] stamps = new int[0];
+		/** Number of the current draw, which marks the vertices shaded during it */
+		int draw;
+		/** Results of the vertex shader for recent vertices of a {@link VertexBuffer}, in slots chosen by their index */
+		final Vertex[] cached;
+		/** Draw number and vertex index held by each slot of {@link #cached} */
+		final long[] tags;
+		
+		/**
+		 * Creates the rendering state for the given vertex structure.
+		 * @param property {@link ShaderProperty} that defines the vertex structure
+		 */
+		Context(ShaderProperty property)
+		{
+			this.property = property;
+			vertices = new Vertex[property.numVertex];
+			for(int i = 0; i < property.numVertex; i++)
+				vertices[i] = new Vertex(property);
+			triangle = new Triangle(property);
+			fragment = new Fragment(property);
+			input = new float[property.inputSize];
+			assembled = new Vertex[property.numVertex];
+			clipper = new Clipper(property);
+			fan = new Vertex[property.numVertex];
+			cached = new Vertex[VERTEX_CACHE_SIZE];
+			for(int i = 0; i < VERTEX_CACHE_SIZE; i++)
+				cached[i] = new Vertex(property);
+			tags = new long[VERTEX_CACHE_SIZE];
+		}
+		
+		/**
+		 * Starts a new draw from a vertex buffer, so every vertex is shaded again the first time it's used.
+		 * @param count number of vertices in the vertex buffer, or 0 when drawing from a {@link VertexBuffer}
+		 */
+		void nextDraw(int count)
+		{
+			if(transformed.length < count)
+			{
+				int old = transformed.length;
+				transformed = Arrays.copyOf(transformed, Math.max(count, old * 2));
+				for(int i = old; i < transformed.length; i++)
+					transformed[i] = new Vertex(property);
+				stamps = Arrays.copyOf(stamps, transformed.length);
+			}
+			
+			// Stamps only need to be cleared once the draw number wraps around
+			if(++draw == 0)
+			{
+				Arrays.fill(stamps, 0);
+				Arrays.fill(tags, 0);
+				draw = 1;
+			}
+		}
+	}
 }
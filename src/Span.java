@@ -0,0 +1,137 @@
+/**
+ * This class holds a horizontal run of fragments that all passed the depth test.
+ * The values of the run change linearly from one pixel to the next, so a {@link SpanShader}
+ * can shade the whole run in a single tight loop.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class Span 
+{
+	/** Index of the first fragment of the run within the frame and depth buffers */
+	public int index;
+	/** Number of fragments in the run */
+	public int length;
+	/** Interpolated depth of the first fragment */
+	public float depth;
+	/** Change of depth from one fragment to the next */
+	public float depthStep;
+	/** Interpolated values of the vertex data at the first fragment */
+	public final float[] attributes;
+	/** Change of each interpolated value from one fragment to the next, which must not be modified */
+	public float[] steps;
+	/** Change of each interpolated value per pixel along the vertical axis, which must not be modified */
+	public float[] ddy;
+	
+	/** Color buffer that the run is written into */
+	public int[] frame;
+	/** Depth buffer that the run is written into */
+	public float[] depthBuffer;
+	
+	/** Depth at the origin of the row */
+	float depthOrigin;
+	/** Interpolated values at the origin of the row */
+	float[] origin;
+	/** Distance of the first fragment from the origin of the row */
+	float offset;
+	
+	/**
+	 * Creates a {@link Span} for the given vertex structure.
+	 * @param property {@link ShaderProperty} that defines the vertex structure
+	 */
+	public Span(ShaderProperty property)
+	{
+		this(property.outputSize);
+	}
+	
+	/**
+	 * Creates a {@link Span} with the given number of interpolated values.
+	 * @param size number of interpolated values
+	 */
+	Span(int size)
+	{
+		attributes = new float[size];
+		origin = new float[size];
+	}
+	
+	/**
+	 * Splits a row into runs of fragments that pass the depth test and shades each run.
+	 * The origin, depth origin and steps of the row must already be set.
+	 * @param shader {@link SpanShader} applied to each run
+	 * @param start index of the first pixel of the row
+	 * @param length number of pixels in the row
+	 * @param fx distance of the first pixel from the origin of the row
+	 * @return number of fragments shaded
+	 */
+	int shadeRuns(SpanShader shader, int start, int length, float fx)
+	{
+		int shaded = 0;
+		for(int i = 0; i < length; )
+		{
+			// Skip the fragments that fail the depth test
+			while(i < length && !(depthBuffer[start + i] < depthOrigin + (fx + i) * depthStep))
+				i++;
+			
+			// Find the end of the run of fragments that pass
+			int first = i;
+			while(i < length && depthBuffer[start + i] < depthOrigin + (fx + i) * depthStep)
+				i++;
+			if(i == first)
+				break;
+			
+			shadeRun(shader, start, first, i, fx);
+			shaded += i - first;
+		}
+		return shaded;
+	}
+	
+	/**
+	 * Shades a single run of fragments.
+	 * @param shader {@link SpanShader} applied to the run
+	 * @param start index of the first pixel of the row
+	 * @param first position of the first fragment of the run within the row
+	 * @param end position after the last fragment of the run within the row
+	 * @param fx distance of the first pixel from the origin of the row
+	 */
+	void shadeRun(SpanShader shader, int start, int first, int end, float fx)
+	{
+		index = start + first;
+		length = end - first;
+		offset = fx + first;
+		depth = depthOrigin + offset * depthStep;
+		for(int a = 0; a < attributes.length; a++)
+			attributes[a] = origin[a] + offset * steps[a];
+		shader.shade( this );
+	}
+	
+	/**
+	 * Returns the depth of a fragment, exactly as it was compared against the depth buffer.
+	 * @param i position of the fragment within the run
+	 * @return interpolated depth of the fragment
+	 */
+	public float depth(int i)
+	{
+		return depthOrigin + (offset + i) * depthStep;
+	}
+	
+	/**
+	 * Returns an interpolated value of a fragment.
+	 * @param a index of the interpolated value
+	 * @param i position of the fragment within the run
+	 * @return interpolated value of the fragment
+	 */
+	public float attribute(int a, int i)
+	{
+		return origin[a] + (offset + i) * steps[a];
+	}
+	
+	/**
+	 * Writes the color and depth of a fragment into the buffers.
+	 * @param i position of the fragment within the run
+	 * @param color RGB color of the fragment
+	 */
+	public void write(int i, int color)
+	{
+		frame[index + i] = color;
+		depthBuffer[index + i] = depth(i);
+	}
+}
@@ -0,0 +1,14 @@
+/**
+ * Fragment Shader that is applied to a whole horizontal run of rendered pixels at once.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@FunctionalInterface
+public interface SpanShader 
+{
+	/**
+	 * Shades every fragment of a run. All of the fragments already passed the depth test.
+	 * @param span {@link Span} that is being shaded
+	 */
+	public void shade(Span span);
+}
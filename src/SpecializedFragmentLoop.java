@@ -0,0 +1,159 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class holds a fragment loop that is loaded again for each pair of {@link ShaderProperty} and
+ * {@link FragmentShader}, so it is never shared between fragment shaders.
+ * <p>
+ * The JIT profiles each copy of a class on its own, so the call to the fragment shader in each copy of
+ * the loop only ever sees one fragment shader and can be inlined, and the loop over the attributes only
+ * ever sees one number of attributes, as if the loop had been written by hand for that pair. The loops
+ * shared by every {@link Shader} see every fragment shader, so their call stays virtual once more than
+ * two are used. Since each copy lives in its own class loader, this class may only use public classes
+ * and members.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public final class SpecializedFragmentLoop implements FragmentLoop
+{
+	/** Bytes of the class file of this class, read once by {@link #specialize}, or an empty array if it couldn't be read */
+	private static volatile byte[] code;
+	/** Loop loaded for each fragment shader and vertex structure, dropped along with the fragment shader */
+	private static final Map<FragmentShader, Map<ShaderProperty, FragmentLoop>> loops = new WeakHashMap<>();
+	
+	/**
+	 * Returns the {@link FragmentLoop} of a fragment shader and vertex structure. The first time a pair is
+	 * seen, the class of the loop is loaded again from the bytes of this class, so it isn't shared with any
+	 * other pair. If the class can't be loaded again, the shared class is used.
+	 * @param property {@link ShaderProperty} that defines the vertex structure
+	 * @param shader {@link FragmentShader} that the loop calls
+	 * @return {@link FragmentLoop} of the pair
+	 */
+	static synchronized FragmentLoop specialize(ShaderProperty property, FragmentShader shader)
+	{
+		Map<ShaderProperty, FragmentLoop> byProperty = loops.get(shader);
+		if(byProperty == null)
+			loops.put(shader, byProperty = new WeakHashMap<>());
+		FragmentLoop loop = byProperty.get(property);
+		if(loop == null)
+			byProperty.put(property, loop = load());
+		return loop;
+	}
+	
+	/**
+	 * Loads a new copy of this class and creates a loop of it.
+	 * @return new {@link FragmentLoop}
+	 */
+	private static FragmentLoop load()
+	{
+		byte[] bytes = code != null ? code : (code = read());
+		if(bytes.length == 0)
+			return new SpecializedFragmentLoop();
+		
+		// Every other class, including FragmentLoop, comes from the parent so the copy can be used here
+		String name = SpecializedFragmentLoop.class.getName();
+		ClassLoader loader = new ClassLoader(SpecializedFragmentLoop.class.getClassLoader())
+		{
+			@Override
+			protected Class<?> findClass(String className) throws ClassNotFoundException
+			{
+				if(!className.equals(name))
+					throw new ClassNotFoundException(className);
+				return defineClass(className, bytes, 0, bytes.length);
+			}
+			
+			@Override
+			protected synchronized Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException
+			{
+				if(!className.equals(name))
+					return super.loadClass(className, resolve);
+				Class<?> c = findLoadedClass(className);
+				return c != null ? c : findClass(className);
+			}
+		};
+		try
+		{
+			return (FragmentLoop)loader.loadClass(name).getDeclaredConstructor().newInstance();
+		}
+		catch(ReflectiveOperationException | LinkageError | SecurityException e)
+		{
+			System.err.println( "Unable to specialize fragment loop, sharing it instead: " + e );
+			code = new byte[0];
+			return new SpecializedFragmentLoop();
+		}
+	}
+	
+	/**
+	 * Reads the class file of this class.
+	 * @return bytes of the class file, or an empty array if it couldn't be read
+	 */
+	private static byte[] read()
+	{
+		try(InputStream in = SpecializedFragmentLoop.class.getResourceAsStream(SpecializedFragmentLoop.class.getName() + ".class"))
+		{
+			if(in == null)
+				throw new IOException("Class file not found");
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] chunk = new byte[4096];
+			for(int n; (n = in.read(chunk)) > 0; )
+				bytes.write(chunk, 0, n);
+			return bytes.toByteArray();
+		}
+		catch(IOException | SecurityException e)
+		{
+			System.err.println( "Unable to specialize fragment loop, sharing it instead: " + e );
+			return new byte[0];
+		}
+	}
+	
+	@Override
+	public int shadeRow(Fragment fragment, FragmentShader shader, float[] row, float[] steps, 
+			int start, int count, float fx, float zRow, float dzdx, boolean test)
+	{
+		float[] a = fragment.attributes;
+		float[] depth = fragment.depthBuffer;
+		int shaded = 0;
+		for(int index = start, end = start + count; index < end; index++, fx++)
+		{
+			float z = zRow + fx * dzdx;
+			if(!test || depth[index] < z)
+			{
+				for(int i = 0; i < steps.length; i++)
+					a[i] = row[i] + fx * steps[i];
+				fragment.index = index;
+				fragment.depth = z;
+				shader.shade( fragment );
+				shaded++;
+			}
+		}
+		return shaded;
+	}
+	
+	@Override
+	public int shadeStrip(Fragment fragment, FragmentShader shader, float[] values, float[] steps, 
+			int start, int count, float z, float dz)
+	{
+		float[] a = fragment.attributes;
+		float[] depth = fragment.depthBuffer;
+		int shaded = 0;
+		for(int index = start, end = start + count; index < end; index++)
+		{
+			for(int i = 0; i < steps.length; i++)
+				values[i] += steps[i];
+			z += dz;
+			if(depth[index] < z)
+			{
+				if(a != values)
+					System.arraycopy(values, 0, a, 0, steps.length);
+				fragment.index = index;
+				fragment.depth = z;
+				shader.shade( fragment );
+				shaded++;
+			}
+		}
+		return shaded;
+	}
+}
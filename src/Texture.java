@@ -1,9 +1,33 @@
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
 
 /**
  * This class stores a copy of a BufferedImage as an integer array and
  * allows for floating-point based indexing.
- * @version Last Edited: August/08/2020
+ * The copy is either stored as four floats per texel in {@link #buffer},
+ * or packed as one ARGB integer per texel in {@link #texels}.
+ * Texels are ordered row by row, or along a Z-order curve when using {@link Layout#MORTON}.
+ * Textures loaded from an image also hold a chain of mipmaps, each half the size of the last.
+ * Images are read from their raster in bulk and resampled in parallel bands of rows.
+ * <p>
+ * A texture and its mipmaps can be saved as a texture file, which is later mapped into memory
+ * with {@link #map(File)} instead of being decoded and resampled again.
+ * @version Last Edited: October/18/2026
  * @author Sean Rannie
  */
 public class Texture 
@@ -14,18 +38,48 @@ public class Texture
 	public final static byte B = 2;
 	public final static byte A = 3;
 	
+	/** First integer of a texture file */
+	private final static int FILE_MAGIC = 0x54474C4A; // "JLGT"
+	/** Version of the texture file layout */
+	private final static int FILE_VERSION = 1;
+	/** Size of the header of a texture file in bytes */
+	private final static int FILE_HEADER = 32;
+	
 	// | height | width | channel |
-	/** Array that stores the resized copy of the image */
+	/** Array that stores the resized copy of the image when using {@link Format#FLOAT} */
 	public float[] buffer;
+	// | height | width |
+	/** Array that stores the resized copy of the image when using {@link Format#PACKED} */
+	public int[] texels;
+	// | height | width |
+	/** View of a mapped texture file that stores the image when using {@link Format#MAPPED} */
+	public IntBuffer mapped;
+	/** How the texels of the {@link Texture} are stored */
+	public final Format format;
+	/** Order of the texels in memory */
+	public final Layout layout;
+	/** Width of the texture */
+	public BinarySize width;
+	/** Height of the texture */
+	public BinarySize height;
+	/** Mipmap levels of the texture, starting with this texture and ending with a single texel */
+	public Texture[] mipmaps = { this };
 	
 	public float widthSize;
 	public float heightSize;
 	public int widthMask;
 	public int heightMask;
 	
+	/** Index of the first channel of each column, combined with {@link #rows} by {@link #index(int, int)} */
+	private int[] columns;
+	/** Index of the first channel of each row, combined with {@link #columns} by {@link #index(int, int)} */
+	private int[] rows;
+	
 	/** Creates an empty {@link Texture} */
 	public Texture()
 	{
+		format = Format.FLOAT;
+		layout = Layout.LINEAR;
 		setSize(BinarySize.x1, BinarySize.x1);
 	}
 	
@@ -35,26 +89,244 @@ public class Texture
 	 */
 	public Texture(BufferedImage image)
 	{
+		this(image, Format.FLOAT);
+	}
+	
+	/** 
+	 * Resizes a {@link BufferedImage} into a usable {@link Texture} 
+	 * @param image source of the image data
+	 * @param format how the texels are stored
+	 */
+	public Texture(BufferedImage image, Format format)
+	{
+		this(image, format, Filter.NEAREST);
+	}
+	
+	/** 
+	 * Resizes a {@link BufferedImage} into a usable {@link Texture} 
+	 * @param image source of the image data
+	 * @param format how the texels are stored
+	 * @param filter how the image is resampled to the size of the texture
+	 */
+	public Texture(BufferedImage image, Format format, Filter filter)
+	{
+		this(image, format, filter, Layout.LINEAR);
+	}
+	
+	/** 
+	 * Resizes a {@link BufferedImage} into a usable {@link Texture} 
+	 * @param image source of the image data
+	 * @param format how the texels are stored
+	 * @param filter how the image is resampled to the size of the texture
+	 * @param layout order of the texels in memory
+	 */
+	public Texture(BufferedImage image, Format format, Filter filter, Layout layout)
+	{
+		this.format = format;
+		this.layout = layout;
+		
 		// Find the closest matching dimensions
 		BinarySize width = BinarySize.closestMatch( image.getWidth() );
 		BinarySize height = BinarySize.closestMatch( image.getHeight() );
 		setSize( width, height );
 		
 		// Resize the image to fit within a BinarySize texture
-		for(int y = 0; y < height.size; y++)
+		int[] pixels = pixels(image);
+		int w = image.getWidth();
+		int h = image.getHeight();
+		int[][] columnWeights = filter.map(w, width);
+		int[][] rowWeights = filter.map(h, height);
+		IntStream.range(0, height.size).parallel().forEach((y) -> {
+			int[] row = new int[width.size];
+			filter.resample(pixels, w, rowWeights[y], columnWeights, row);
+			setRow(y, row);
+		});
+		
+		generateMipmaps();
+	}
+	
+	/**
+	 * Returns the pixels of an image as ARGB integers, one row after the other.
+	 * Images stored as packed integers or interleaved bytes are read straight from their
+	 * {@link DataBuffer}, other images are converted by the {@link BufferedImage} in bulk.
+	 * @param image source of the image data
+	 * @return ARGB color of each pixel
+	 */
+	private static int[] pixels(BufferedImage image)
+	{
+		int w = image.getWidth();
+		int h = image.getHeight();
+		int[] pixels = new int[w * h];
+		Raster raster = image.getRaster();
+		DataBuffer data = raster.getDataBuffer();
+		boolean sRGB = image.getColorModel().getColorSpace().isCS_sRGB() && !image.getColorModel().isAlphaPremultiplied()
+				&& raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+		
+		// Packed integers, such as TYPE_INT_RGB and TYPE_INT_ARGB
+		if(sRGB && data instanceof DataBufferInt && raster.getSampleModel() instanceof SinglePixelPackedSampleModel 
+				&& image.getColorModel() instanceof DirectColorModel)
 		{
-			for(int x = 0; x < width.size; x++)
+			DirectColorModel cm = (DirectColorModel)image.getColorModel();
+			SinglePixelPackedSampleModel sm = (SinglePixelPackedSampleModel)raster.getSampleModel();
+			if(cm.getRedMask() == 0xFF0000 && cm.getGreenMask() == 0xFF00 && cm.getBlueMask() == 0xFF 
+					&& (cm.getAlphaMask() == 0 || cm.getAlphaMask() == 0xFF000000))
 			{
-				float xf = x / width.fsize;
-				float yf = y / height.fsize;
-				int color = image.getRGB(Math.round(xf * image.getWidth()), Math.round(yf * image.getHeight()));
-				int i = (x<<2) | ((y<<2) << width.bits);
-				buffer[i + A] = ((color >> 24) & 0xFF);
-				buffer[i + R] = ((color >> 16) & 0xFF);
-				buffer[i + G] = ((color >>  8) & 0xFF);
-				buffer[i + B] = ( color & 0xFF);
+				int[] src = ((DataBufferInt)data).getData();
+				int offset = data.getOffset();
+				int stride = sm.getScanlineStride();
+				int opaque = cm.getAlphaMask() == 0 ? 0xFF000000 : 0;
+				IntStream.range(0, h).parallel().forEach((y) -> {
+					for(int x = 0, i = offset + y * stride; x < w; x++, i++)
+						pixels[x + y * w] = src[i] | opaque;
+				});
+				return pixels;
 			}
 		}
+		
+		// Interleaved bytes, such as TYPE_3BYTE_BGR (decoded JPEGs) and TYPE_4BYTE_ABGR
+		if(sRGB && data instanceof DataBufferByte && raster.getSampleModel() instanceof ComponentSampleModel 
+				&& (raster.getNumBands() == 3 || raster.getNumBands() == 4) && data.getNumBanks() == 1)
+		{
+			ComponentSampleModel sm = (ComponentSampleModel)raster.getSampleModel();
+			byte[] src = ((DataBufferByte)data).getData();
+			int[] bands = sm.getBandOffsets();
+			int step = sm.getPixelStride();
+			int stride = sm.getScanlineStride();
+			int offset = data.getOffset();
+			int r = bands[0], g = bands[1], b = bands[2];
+			int a = raster.getNumBands() == 4 ? bands[3] : -1;
+			IntStream.range(0, h).parallel().forEach((y) -> {
+				for(int x = 0, i = offset + y * stride; x < w; x++, i += step)
+				{
+					int alpha = a < 0 ? 0xFF : src[i + a] & 0xFF;
+					pixels[x + y * w] = (alpha << 24) | ((src[i + r] & 0xFF) << 16) | ((src[i + g] & 0xFF) << 8) | (src[i + b] & 0xFF);
+				}
+			});
+			return pixels;
+		}
+		
+		// Any other image is converted one band of rows at a time
+		IntStream.range(0, (h + 63) / 64).parallel().forEach((band) -> {
+			int y = band * 64;
+			image.getRGB(0, y, w, Math.min(64, h - y), pixels, y * w, w);
+		});
+		return pixels;
+	}
+	
+	/**
+	 * Creates an empty {@link Texture} of the given size.
+	 * @param format how the texels are stored
+	 * @param layout order of the texels in memory
+	 * @param w binary friendly width
+	 * @param h binary friendly height
+	 */
+	private Texture(Format format, Layout layout, BinarySize w, BinarySize h)
+	{
+		this.format = format;
+		this.layout = layout;
+		setSize(w, h);
+	}
+	
+	/**
+	 * Builds the mipmap chain of the texture. Each level averages 2x2 texels of the previous level,
+	 * until the level is a single texel. Textures using {@link Format#MAPPED} keep the levels of their file.
+	 */
+	public void generateMipmaps()
+	{
+		if(format == Format.MAPPED)
+		{
+			System.err.println( "Mipmaps of a mapped texture are read from its file!" );
+			return;
+		}
+		
+		int count = Math.max(width.bits, height.bits) + 1;
+		mipmaps = new Texture[count];
+		mipmaps[0] = this;
+		
+		for(int i = 1; i < count; i++)
+		{
+			Texture src = mipmaps[i - 1];
+			BinarySize w = src.width.half();
+			BinarySize h = src.height.half();
+			Texture dst = new Texture(format, layout, w, h);
+			
+			// Each texel averages 2x2 texels of the previous level, or 2x1 once an axis reaches one texel
+			int sx = src.width.size / w.size - 1;
+			int sy = src.height.size / h.size - 1;
+			IntStream.range(0, h.size).parallel().forEach((y) -> {
+				int y0 = y * (sy + 1);
+				if(format == Format.PACKED)
+				{
+					int[] s = src.texels;
+					for(int x = 0, x0 = 0; x < w.size; x++, x0 += sx + 1)
+					{
+						// Sum the red/blue and alpha/green channels two at a time
+						int c0 = s[src.index(x0, y0)], c1 = s[src.index(x0 + sx, y0)];
+						int c2 = s[src.index(x0, y0 + sy)], c3 = s[src.index(x0 + sx, y0 + sy)];
+						int rb = (c0 & 0xFF00FF) + (c1 & 0xFF00FF) + (c2 & 0xFF00FF) + (c3 & 0xFF00FF);
+						int ag = (c0 >>> 8 & 0xFF00FF) + (c1 >>> 8 & 0xFF00FF) + (c2 >>> 8 & 0xFF00FF) + (c3 >>> 8 & 0xFF00FF);
+						dst.texels[dst.index(x, y)] = ((rb + 0x20002) >>> 2 & 0xFF00FF) | ((ag + 0x20002) >>> 2 & 0xFF00FF) << 8;
+					}
+					return;
+				}
+				
+				float[] s = src.buffer;
+				for(int x = 0, x0 = 0; x < w.size; x++, x0 += sx + 1)
+				{
+					int t0 = src.index(x0, y0), t1 = src.index(x0 + sx, y0);
+					int t2 = src.index(x0, y0 + sy), t3 = src.index(x0 + sx, y0 + sy);
+					for(int c = 0, j = dst.index(x, y); c < NUM_CHANNELS; c++, j++)
+					{
+						int sum = (int)(s[t0 + c] + s[t1 + c] + s[t2 + c] + s[t3 + c]);
+						dst.buffer[j] = (sum + 2) >> 2;
+					}
+				}
+			});
+			mipmaps[i] = dst;
+		}
+		
+		// Every level shares the chain
+		for(Texture level : mipmaps)
+			level.mipmaps = mipmaps;
+	}
+	
+	/**
+	 * Sets the colors of a whole row of texels.
+	 * @param y row of the texels
+	 * @param row ARGB color of each texel of the row
+	 */
+	private void setRow(int y, int[] row)
+	{
+		// Rows of linear packed textures are contiguous
+		if(format == Format.PACKED && layout == Layout.LINEAR)
+		{
+			System.arraycopy(row, 0, texels, y << width.bits, row.length);
+			return;
+		}
+		
+		for(int x = 0; x < row.length; x++)
+			setTexel(x, y, row[x]);
+	}
+	
+	/**
+	 * Sets the color of a texel.
+	 * @param x column of the texel
+	 * @param y row of the texel
+	 * @param color ARGB color of the texel
+	 */
+	private void setTexel(int x, int y, int color)
+	{
+		int i = index(x, y);
+		if(format == Format.PACKED)
+		{
+			texels[i] = color;
+			return;
+		}
+		
+		buffer[i + A] = ((color >> 24) & 0xFF);
+		buffer[i + R] = ((color >> 16) & 0xFF);
+		buffer[i + G] = ((color >>  8) & 0xFF);
+		buffer[i + B] = ( color & 0xFF);
 	}
 	
 	/**
@@ -64,24 +336,394 @@ public class Texture
 	 */
 	private void setSize(BinarySize w, BinarySize h)
 	{
-		buffer = new float[w.size * h.size * NUM_CHANNELS];
-		widthSize = w.fsize * 4;
-		widthMask = w.max << 2;
-		heightSize = w.fsize * h.fsize * 4;
-		heightMask = (h.max << (w.bits + 2));
+		width = w;
+		height = h;
+		
+		// Float texels are indexed by their first channel
+		int shift = 0;
+		if(format == Format.FLOAT)
+		{
+			buffer = new float[w.size * h.size * NUM_CHANNELS];
+			shift = 2;
+		}
+		else if(format == Format.PACKED)
+			texels = new int[w.size * h.size];
+		
+		widthSize = w.fsize * (1 << shift);
+		widthMask = w.max << shift;
+		heightSize = w.fsize * h.fsize * (1 << shift);
+		heightMask = (h.max << (w.bits + shift));
+		
+		columns = layout.offsets(w, h, false);
+		rows = layout.offsets(h, w, true);
+		for(int i = 0; i < columns.length; i++)
+			columns[i] <<= shift;
+		for(int i = 0; i < rows.length; i++)
+			rows[i] <<= shift;
+	}
+	
+	/**
+	 * Returns the index of the first channel of a texel.
+	 * @param x column of the texel
+	 * @param y row of the texel
+	 * @return index of the texel in its {@link Format}'s storage
+	 */
+	public int index(int x, int y)
+	{
+		return columns[x] | rows[y];
 	}
 	
 	/**
 	 * Returns starting index of the pixel using a floating-point x-y coordinate.
+	 * For {@link Format#PACKED} and {@link Format#MAPPED} textures, this is the index of the texel.
 	 * @param x horizontal component
 	 * @param y vertical component
 	 * @return integer index of the pixel's first channel
 	 */
 	public int texture(float x, float y)
 	{
+		if(layout == Layout.MORTON)
+			return columns[(int)( x * width.fsize ) & width.max] | rows[(int)( y * height.fsize ) & height.max];
 		return ( (int)( x * widthSize ) & widthMask ) | ( (int)( y * heightSize ) & heightMask );
 	}
 	
+	/**
+	 * Returns the color of the pixel at a floating-point x-y coordinate.
+	 * @param x horizontal component
+	 * @param y vertical component
+	 * @return ARGB color of the pixel
+	 */
+	public int rgb(float x, float y)
+	{
+		return texel(texture(x, y));
+	}
+	
+	/**
+	 * Returns the color of a texel in any format.
+	 * @param i index returned by {@link #texture(float, float)}
+	 * @return ARGB color of the texel
+	 */
+	public int texel(int i)
+	{
+		if(format == Format.PACKED)
+			return texels[i];
+		if(format == Format.MAPPED)
+			return mapped.get(i);
+		
+		return ((int)buffer[i + A] << 24) | ((int)buffer[i + R] << 16) | ((int)buffer[i + G] << 8) | (int)buffer[i + B];
+	}
+	
+	/**
+	 * Saves the texture and its mipmaps as a texture file that can be opened with {@link #map(File)}.
+	 * The file starts with a header of eight little-endian integers: the magic number, the version,
+	 * the bits of the width and height, the width and height masks of a packed texture, the number of
+	 * levels and the {@link Layout}. The ARGB texels of each level follow in the order of the layout,
+	 * largest level first.
+	 * @param file destination of the texture file
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(File file) throws IOException
+	{
+		ByteBuffer out = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		out.putInt(FILE_MAGIC).putInt(FILE_VERSION);
+		out.putInt(width.bits).putInt(height.bits);
+		out.putInt(width.max).putInt(height.max << width.bits);
+		out.putInt(mipmaps.length).putInt(layout.ordinal());
+		
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			// Texels are written through a small buffer, one block at a time
+			for(Texture level : mipmaps)
+			{
+				int shift = level.format == Format.FLOAT ? 2 : 0;
+				for(int t = 0, n = level.width.size * level.height.size; t < n; t++)
+				{
+					if(!out.hasRemaining())
+					{
+						out.flip();
+						while(out.hasRemaining())
+							channel.write(out);
+						out.clear();
+					}
+					out.putInt(level.texel(t << shift));
+				}
+			}
+			
+			out.flip();
+			while(out.hasRemaining())
+				channel.write(out);
+		}
+	}
+	
+	/**
+	 * Opens a texture file by mapping it into memory. The texels are read straight from the
+	 * mapped file, so they are never copied onto the heap.
+	 * @param file texture file written by {@link #save(File)}
+	 * @return {@link Texture} using {@link Format#MAPPED}, with the mipmaps stored in the file
+	 * @throws IOException if the file can't be mapped or isn't a valid texture file
+	 */
+	public static Texture map(File file) throws IOException
+	{
+		MappedByteBuffer data;
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		data.order(ByteOrder.LITTLE_ENDIAN);
+		
+		// Validate the header before trusting any of the sizes
+		BinarySize[] sizes = BinarySize.values();
+		if(data.limit() < FILE_HEADER || data.getInt(0) != FILE_MAGIC || data.getInt(4) != FILE_VERSION)
+			throw new IOException("Not a texture file: " + file);
+		int wBits = data.getInt(8);
+		int hBits = data.getInt(12);
+		int levels = data.getInt(24);
+		int layout = data.getInt(28);
+		if(wBits < 0 || wBits >= sizes.length || hBits < 0 || hBits >= sizes.length 
+				|| data.getInt(16) != sizes[wBits].max || data.getInt(20) != sizes[hBits].max << wBits
+				|| levels < 1 || levels > Math.max(wBits, hBits) + 1 || layout < 0 || layout >= Layout.values().length)
+			throw new IOException("Corrupted texture file header: " + file);
+		
+		Texture[] mipmaps = new Texture[levels];
+		BinarySize w = sizes[wBits];
+		BinarySize h = sizes[hBits];
+		long offset = FILE_HEADER;
+		for(int i = 0; i < levels; i++, w = w.half(), h = h.half())
+		{
+			int length = w.size * h.size;
+			if(offset + length * 4L > data.limit())
+				throw new IOException("Truncated texture file: " + file);
+			
+			data.position((int)offset);
+			ByteBuffer level = data.slice();
+			level.limit(length * 4);
+			mipmaps[i] = new Texture(Format.MAPPED, Layout.values()[layout], w, h);
+			mipmaps[i].mapped = level.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			offset += length * 4L;
+		}
+		
+		for(Texture level : mipmaps)
+			level.mipmaps = mipmaps;
+		return mipmaps[0];
+	}
+	
+	/**
+	 * Returns the color of the pixel at a floating-point x-y coordinate from a mipmap level.
+	 * @param x horizontal component
+	 * @param y vertical component
+	 * @param lod level of detail, where 0 is the full size texture
+	 * @return ARGB color of the pixel
+	 */
+	public int rgb(float x, float y, float lod)
+	{
+		return level(lod).rgb(x, y);
+	}
+	
+	/**
+	 * Returns the mipmap level closest to a level of detail.
+	 * @param lod level of detail, where 0 is the full size texture
+	 * @return {@link Texture} of the mipmap level
+	 */
+	public Texture level(float lod)
+	{
+		int i = (int)(lod + 0.5f);
+		return mipmaps[i <= 0 ? 0 : Math.min(i, mipmaps.length - 1)];
+	}
+	
+	/**
+	 * Returns the level of detail from the change of the texture coordinates across a pixel.
+	 * The logarithm is approximated from the float's bits and is accurate to about a tenth of a level.
+	 * @param dudx change of the horizontal texture coordinate along the screen's horizontal axis
+	 * @param dvdx change of the vertical texture coordinate along the screen's horizontal axis
+	 * @param dudy change of the horizontal texture coordinate along the screen's vertical axis
+	 * @param dvdy change of the vertical texture coordinate along the screen's vertical axis
+	 * @return level of detail, where 0 or less is the full size texture
+	 */
+	public float lod(float dudx, float dvdx, float dudy, float dvdy)
+	{
+		// Squared number of texels covered by a pixel along each screen axis
+		float tx = dudx * width.fsize, ty = dvdx * height.fsize;
+		float sx = dudy * width.fsize, sy = dvdy * height.fsize;
+		float rho = Math.max(tx * tx + ty * ty, sx * sx + sy * sy);
+		
+		// log2(sqrt(rho)) from the exponent and mantissa of rho
+		int bits = Float.floatToRawIntBits(rho);
+		return 0.5f * ((bits >> 23) - 127 + (bits & 0x7FFFFF) * (1.0f / (1 << 23)));
+	}
+	
+	/** @return alpha channel of an ARGB texel, from 0 to 255 */
+	public static int alpha(int texel) { return texel >>> 24; }
+	
+	/** @return red channel of an ARGB texel, from 0 to 255 */
+	public static int red(int texel) { return (texel >> 16) & 0xFF; }
+	
+	/** @return green channel of an ARGB texel, from 0 to 255 */
+	public static int green(int texel) { return (texel >> 8) & 0xFF; }
+	
+	/** @return blue channel of an ARGB texel, from 0 to 255 */
+	public static int blue(int texel) { return texel & 0xFF; }
+	
+	/**
+	 * Defines how an image is resampled to the size of a {@link Texture}.
+	 */
+	public static enum Filter
+	{
+		/** Each texel takes the color of the closest pixel */
+		NEAREST,
+		/** Each texel blends the four pixels around its center */
+		BILINEAR,
+		/** Each texel averages every pixel that it covers */
+		BOX;
+		
+		/**
+		 * Returns which pixels of the image are read for each texel along one axis.
+		 * @param length number of pixels along the axis of the image
+		 * @param size number of texels along the axis of the texture
+		 * @return for each texel, the first pixel followed by the filter's parameters
+		 */
+		int[][] map(int length, BinarySize size)
+		{
+			int[][] map = new int[size.size][];
+			for(int i = 0; i < size.size; i++)
+			{
+				switch(this)
+				{
+				case NEAREST:
+					map[i] = new int[] { Math.min(length - 1, Math.round(i / size.fsize * length)) };
+					break;
+				case BILINEAR:
+					// First pixel, second pixel and the weight of the second pixel out of 256
+					float p = (i + 0.5f) * length / size.fsize - 0.5f;
+					int p0 = (int)Math.floor(p);
+					int weight = Math.round((p - p0) * 256);
+					map[i] = new int[] { Math.max(0, p0), Math.max(0, Math.min(length - 1, p0 + 1)), weight };
+					break;
+				case BOX:
+					// First pixel and the pixel after the last
+					int start = (int)((long)i * length / size.size);
+					int end = (int)((long)(i + 1) * length / size.size);
+					map[i] = new int[] { Math.min(length - 1, start), Math.max(Math.min(length - 1, start) + 1, end) };
+					break;
+				}
+			}
+			return map;
+		}
+		
+		/**
+		 * Resamples a single row of texels.
+		 * @param pixels ARGB colors of the image
+		 * @param w width of the image
+		 * @param rowWeights pixels of the image read for this row
+		 * @param columnWeights pixels of the image read for each column
+		 * @param row receives the ARGB color of each texel of the row
+		 */
+		void resample(int[] pixels, int w, int[] rowWeights, int[][] columnWeights, int[] row)
+		{
+			for(int x = 0; x < row.length; x++)
+			{
+				int[] col = columnWeights[x];
+				switch(this)
+				{
+				case NEAREST:
+					row[x] = pixels[col[0] + rowWeights[0] * w];
+					break;
+				case BILINEAR:
+					int top = blend(pixels[col[0] + rowWeights[0] * w], pixels[col[1] + rowWeights[0] * w], col[2]);
+					int bottom = blend(pixels[col[0] + rowWeights[1] * w], pixels[col[1] + rowWeights[1] * w], col[2]);
+					row[x] = blend(top, bottom, rowWeights[2]);
+					break;
+				case BOX:
+					int a = 0, r = 0, g = 0, b = 0;
+					for(int y = rowWeights[0]; y < rowWeights[1]; y++)
+					{
+						for(int i = col[0] + y * w, end = col[1] + y * w; i < end; i++)
+						{
+							int color = pixels[i];
+							a += alpha(color);
+							r += red(color);
+							g += green(color);
+							b += blue(color);
+						}
+					}
+					int n = (rowWeights[1] - rowWeights[0]) * (col[1] - col[0]);
+					row[x] = ((a + n / 2) / n << 24) | ((r + n / 2) / n << 16) | ((g + n / 2) / n << 8) | (b + n / 2) / n;
+					break;
+				}
+			}
+		}
+		
+		/**
+		 * Blends two ARGB colors.
+		 * @param c0 first color
+		 * @param c1 second color
+		 * @param weight weight of the second color out of 256
+		 * @return blended ARGB color
+		 */
+		static int blend(int c0, int c1, int weight)
+		{
+			int inv = 256 - weight;
+			int rb = ((c0 & 0xFF00FF) * inv + (c1 & 0xFF00FF) * weight + 0x800080) >>> 8 & 0xFF00FF;
+			int ag = ((c0 >>> 8 & 0xFF00FF) * inv + (c1 >>> 8 & 0xFF00FF) * weight + 0x800080) & 0xFF00FF00;
+			return rb | ag;
+		}
+	}
+	
+	/**
+	 * Defines how the texels of a {@link Texture} are stored.
+	 */
+	public static enum Format
+	{
+		/** Four floats per texel (16 bytes), read through {@link Texture#buffer} */
+		FLOAT,
+		/** One ARGB8888 integer per texel (4 bytes), read through {@link Texture#texels} */
+		PACKED,
+		/** One ARGB8888 integer per texel (4 bytes), read through {@link Texture#mapped} from a mapped texture file */
+		MAPPED;
+	}
+	
+	/**
+	 * Defines the order of the texels of a {@link Texture} in memory.
+	 */
+	public static enum Layout
+	{
+		/** Texels are stored row by row, so neighbors along the vertical axis are a whole row apart */
+		LINEAR,
+		/** 
+		 * Texels are stored along a Z-order curve by interleaving the bits of the column and row,
+		 * so texels close to each other in any direction are close in memory 
+		 */
+		MORTON;
+		
+		/**
+		 * Returns the offset of each position along one axis. The index of a texel is the
+		 * offset of its column combined with the offset of its row.
+		 * @param size number of texels along the axis
+		 * @param other number of texels along the other axis
+		 * @param vertical whether the offsets are for the rows
+		 * @return offset of each position along the axis
+		 */
+		int[] offsets(BinarySize size, BinarySize other, boolean vertical)
+		{
+			int[] offsets = new int[size.size];
+			int shared = Math.min(size.bits, other.bits);
+			for(int i = 0; i < size.size; i++)
+			{
+				if(this == LINEAR)
+				{
+					offsets[i] = vertical ? i << other.bits : i;
+					continue;
+				}
+				
+				// Bits shared by both axes alternate starting with the column,
+				// the remaining bits of the longer axis follow in order
+				for(int b = 0; b < size.bits; b++)
+					if((i >> b & 1) != 0)
+						offsets[i] |= 1 << (b < shared ? (b << 1) + (vertical ? 1 : 0) : b + shared);
+			}
+			return offsets;
+		}
+	}
+	
 	/**
 	 * This enumerator generates sizes that allow for binary operations.
 	 * The maximum supported size is 65536.
@@ -124,6 +766,15 @@ public class Texture
 			max = size - 1;
 		}
 		
+		/**
+		 * Returns the {@link BinarySize} that is half of this size, or x1 if this is already x1.
+		 * @return half of this size
+		 */
+		public BinarySize half()
+		{
+			return bits == 0 ? this : values()[bits - 1];
+		}
+		
 		/**
 		 * Returns minimum {@link BinarySize} required to match the given dimensions
 		 * @param size specified size to match
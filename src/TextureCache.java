@@ -0,0 +1,138 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * This class keeps compiled copies of image files as texture files in a cache directory.
+ * Each texture file is named after a hash of the contents of its image, so an image is only
+ * decoded and resampled the first time it is loaded, or after it changes. Later loads map
+ * the texture file into memory with {@link Texture#map(File)}.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class TextureCache
+{
+	/** Directory that holds the texture files */
+	public final File directory;
+	/** How images are resampled when they are compiled */
+	public final Texture.Filter filter;
+	/** Order of the texels of compiled images */
+	public final Texture.Layout layout;
+	
+	/**
+	 * Creates a {@link TextureCache} that resamples images with {@link Texture.Filter#NEAREST}.
+	 * @param directory directory that holds the texture files, created when needed
+	 */
+	public TextureCache(File directory)
+	{
+		this(directory, Texture.Filter.NEAREST);
+	}
+	
+	/**
+	 * Creates a {@link TextureCache}.
+	 * @param directory directory that holds the texture files, created when needed
+	 * @param filter how images are resampled when they are compiled
+	 */
+	public TextureCache(File directory, Texture.Filter filter)
+	{
+		this(directory, filter, Texture.Layout.LINEAR);
+	}
+	
+	/**
+	 * Creates a {@link TextureCache}.
+	 * @param directory directory that holds the texture files, created when needed
+	 * @param filter how images are resampled when they are compiled
+	 * @param layout order of the texels of compiled images
+	 */
+	public TextureCache(File directory, Texture.Filter filter, Texture.Layout layout)
+	{
+		this.directory = directory;
+		this.filter = filter;
+		this.layout = layout;
+	}
+	
+	/**
+	 * Loads an image as a {@link Texture}, mapping its texture file when it is already cached.
+	 * Otherwise the image is decoded, resampled and saved to the cache. If the cache can't be written,
+	 * the decoded texture is still returned.
+	 * @param source image file
+	 * @return {@link Texture} using {@link Texture.Format#MAPPED} when cached, otherwise {@link Texture.Format#PACKED}
+	 * @throws IOException if the image can't be read
+	 */
+	public Texture load(File source) throws IOException
+	{
+		File cached = new File(directory, hash(source) + "-" + filter.name().toLowerCase() + "-" + layout.name().toLowerCase() + ".tex");
+		if(cached.isFile())
+		{
+			try
+			{
+				return Texture.map(cached);
+			}
+			catch(IOException e)
+			{
+				System.err.println( "Recompiling texture " + source + ": " + e.getMessage() );
+			}
+		}
+		
+		BufferedImage image = ImageIO.read(source);
+		if(image == null)
+			throw new IOException("Unsupported image format: " + source);
+		Texture texture = new Texture(image, Texture.Format.PACKED, filter, layout);
+		
+		// The file is written under a temporary name, so other programs never map a partial file
+		File temp = null;
+		try
+		{
+			directory.mkdirs();
+			temp = File.createTempFile("texture", ".tmp", directory);
+			texture.save(temp);
+			Files.move(temp.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch(IOException e)
+		{
+			System.err.println( "Unable to cache texture " + source + ": " + e.getMessage() );
+			if(temp != null)
+				temp.delete();
+		}
+		return texture;
+	}
+	
+	/**
+	 * Returns the SHA-1 hash of the contents of a file, read through a memory mapping.
+	 * @param file file that is hashed
+	 * @return hash as 40 hexadecimal digits
+	 * @throws IOException if the file can't be read
+	 */
+	static String hash(File file) throws IOException
+	{
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-1");
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new IOException(e);
+		}
+		
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			digest.update(data);
+		}
+		
+		StringBuilder hex = new StringBuilder();
+		for(byte b : digest.digest())
+			hex.append(String.format("%02x", b));
+		return hex.toString();
+	}
+}
@@ -1,20 +1,13 @@
 /**
- * This class manages the passing of time between frames.
- * @version Last Edited: August/08/2020
+ * This class manages the passing of time between frames through a single shared {@link FrameClock}.
+ * Render loops that need their own pacing or fixed updates should use a {@link FrameClock} instead.
+ * @version Last Edited: October/18/2026
  * @author Sean Rannie
  */
 public class Time 
 {
-	/** Time of next second interval */
-	private static long nextSecond = System.currentTimeMillis();
-	/** The current frame count of the second */
-	private static int frameCount = 0;
-	/** The time of the last frame */
-	private static long lastFrame = System.nanoTime();
-	/** The time of the current frame */
-	private static long currentFrame = System.nanoTime();
-	/** Time of next frame */
-	private static long nextFrame = System.nanoTime();
+	/** Clock that measures the frames, ticking at 60 Hz while VSync is enabled */
+	public static final FrameClock clock = new FrameClock(0.0, 60.0);
 	
 	/** The current frame rate */
 	public static int frameRate = 0;
@@ -26,38 +19,24 @@ public class Time
 	public static boolean vsyncEnabled = false;
 	
 	/**
-	 * Used to pause until the next 60 Hz tick.
-	 * Note: this is an inefficient way of handling this.
+	 * Used to pause until the next 60 Hz tick. The thread is parked for most of the wait
+	 * instead of spinning, and the ticks don't drift when a frame runs late.
 	 */
 	public static void vSync()
 	{
-		while(nextFrame > currentFrame)
-			currentFrame = System.nanoTime();
-		nextFrame += 16666666; //16.6 ms
+		clock.setFrameRate(60.0);
+		clock.sync();
 	}
 	
 	/**
-	 * Calculates time difference between frames
+	 * Calculates time difference between frames, waiting for the next 60 Hz tick first when VSync is enabled
 	 */
 	public static void frame()
 	{
-     	frameCount++;
-     	
-     	// Update frame rate when next second passes
- 		if(System.currentTimeMillis() >= nextSecond)
- 		{
- 			frameRate = frameCount;
- 			frameCount = 0;
- 			nextSecond += 1000; //1.0 s
- 		}
- 		
- 		lastFrame = currentFrame;
- 		currentFrame = System.nanoTime();
- 		deltaTime = (currentFrame - lastFrame) / 1000000000.0;
-		
-		globalCount++;
-		
-		if( vsyncEnabled )
-			vSync();
+		clock.setFrameRate(vsyncEnabled ? 60.0 : 0.0);
+		clock.frame();
+		frameRate = clock.frameRate();
+		deltaTime = clock.deltaTime();
+		globalCount = clock.frameCount();
 	}
 }
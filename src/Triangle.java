@@ -0,0 +1,405 @@
+/**
+ * This class holds the setup of a triangle for the built-in rasterizer of {@link Shader}.
+ * Once set up, a {@link Triangle} is only read, so it can be rasterized by several threads
+ * at once as long as each thread uses its own {@link Fragment}.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+class Triangle
+{
+	/** Number of bits of sub-pixel precision used by the rasterizer */
+	static final int SUBPIXEL_BITS = Shader.SUBPIXEL_BITS;
+	/** Number of sub-pixel steps in a single pixel */
+	static final int SUBPIXEL = 1 << SUBPIXEL_BITS;
+	/** Offset from the corner of a pixel to its center in sub-pixel steps */
+	static final int HALF_PIXEL = SUBPIXEL >> 1;
+	
+	/** Snapped vertex positions, ordered so that the interior is on the positive side of each edge */
+	private long x0, y0, x1, y1, x2, y2;
+	/** Change of each edge function per pixel along the horizontal axis */
+	private long a0, a1, a2;
+	/** Change of each edge function per pixel along the vertical axis */
+	private long b0, b1, b2;
+	
+	/** Bounding box of the triangle in pixels */
+	int minX, minY, maxX, maxY;
+	/** Index of the triangle among the triangles waiting to be rasterized, written into the visibility buffer */
+	int id;
+	
+	/** Position of the first vertex in pixels */
+	private float vx, vy;
+	/** Depth of the first vertex */
+	private float z0;
+	/** Change of depth per pixel along each axis */
+	private float dzdx, dzdy;
+	/** Highest depth of any fragment of the triangle, including rounding errors */
+	float maxDepth;
+	/** Largest rounding error of the depth of a fragment */
+	private float depthError;
+	/** Vertex data of the first vertex */
+	private final float[] base;
+	/** Change of each interpolated value per pixel along the horizontal axis */
+	private final float[] dadx;
+	/** Change of each interpolated value per pixel along the vertical axis */
+	private final float[] dady;
+	
+	/**
+	 * Creates a {@link Triangle} for the given vertex structure.
+	 * @param property {@link ShaderProperty} that defines the vertex structure
+	 */
+	Triangle(ShaderProperty property)
+	{
+		base = new float[property.outputSize];
+		dadx = new float[property.outputSize];
+		dady = new float[property.outputSize];
+	}
+	
+	/**
+	 * Sets up the triangle from the output of the vertex shader.
+	 * @param vertices result of the vertex shader for each vertex
+	 * @param width horizontal resolution of the rendering area
+	 * @param height vertical resolution of the rendering area
+	 * @return false if the triangle does not cover any area
+	 */
+	boolean setup(Vertex[] vertices, int width, int height)
+	{
+		Vertex v0 = vertices[0];
+		Vertex v1 = vertices[1];
+		Vertex v2 = vertices[2];
+		
+		// Snap the vertices to the sub-pixel grid
+		x0 = Math.round((double)v0.x * width * SUBPIXEL);
+		y0 = Math.round((double)v0.y * height * SUBPIXEL);
+		x1 = Math.round((double)v1.x * width * SUBPIXEL);
+		y1 = Math.round((double)v1.y * height * SUBPIXEL);
+		x2 = Math.round((double)v2.x * width * SUBPIXEL);
+		y2 = Math.round((double)v2.y * height * SUBPIXEL);
+		
+		long area = (x1 - x0) * (y2 - y0) - (y1 - y0) * (x2 - x0);
+		if(area == 0)
+			return false;
+		
+		// Calculate the change of each value per pixel from the snapped vertices
+		float ex1 = (x1 - x0) / (float)SUBPIXEL;
+		float ey1 = (y1 - y0) / (float)SUBPIXEL;
+		float ex2 = (x2 - x0) / (float)SUBPIXEL;
+		float ey2 = (y2 - y0) / (float)SUBPIXEL;
+		float inv = (SUBPIXEL * SUBPIXEL) / (float)area;
+		for(int i = 0; i < base.length; i++)
+		{
+			float ds = v1.attributes[i] - v0.attributes[i];
+			float dt = v2.attributes[i] - v0.attributes[i];
+			base[i] = v0.attributes[i];
+			dadx[i] = (ds * ey2 - dt * ey1) * inv;
+			dady[i] = (dt * ex1 - ds * ex2) * inv;
+		}
+		z0 = v0.z;
+		dzdx = ((v1.z - v0.z) * ey2 - (v2.z - v0.z) * ey1) * inv;
+		dzdy = ((v2.z - v0.z) * ex1 - (v1.z - v0.z) * ex2) * inv;
+		vx = x0 / (float)SUBPIXEL;
+		vy = y0 / (float)SUBPIXEL;
+		
+		// The depth of a fragment is rounded a few times, by at most an ulp of the largest term
+		float spanX = (Math.max(x0, Math.max(x1, x2)) - Math.min(x0, Math.min(x1, x2))) / (float)SUBPIXEL + 1;
+		float spanY = (Math.max(y0, Math.max(y1, y2)) - Math.min(y0, Math.min(y1, y2))) / (float)SUBPIXEL + 1;
+		depthError = 4 * Math.ulp(Math.abs(z0) + Math.abs(dzdx) * spanX + Math.abs(dzdy) * spanY);
+		maxDepth = Math.max(v0.z, Math.max(v1.z, v2.z)) + depthError;
+		
+		// Edges are always walked with the interior on their positive side
+		if(area < 0)
+		{
+			long tx = x1; x1 = x2; x2 = tx;
+			long ty = y1; y1 = y2; y2 = ty;
+		}
+		a0 = (y0 - y1) * SUBPIXEL; b0 = (x1 - x0) * SUBPIXEL;
+		a1 = (y1 - y2) * SUBPIXEL; b1 = (x2 - x1) * SUBPIXEL;
+		a2 = (y2 - y0) * SUBPIXEL; b2 = (x0 - x2) * SUBPIXEL;
+		
+		// Bounding box of the triangle within the rendering area
+		minY = (int)Math.max(0, Math.min(y0, Math.min(y1, y2)) >> SUBPIXEL_BITS);
+		maxY = (int)Math.min(height - 1, Math.max(y0, Math.max(y1, y2)) >> SUBPIXEL_BITS);
+		minX = (int)Math.max(0, Math.min(x0, Math.min(x1, x2)) >> SUBPIXEL_BITS);
+		maxX = (int)Math.min(width - 1, Math.max(x0, Math.max(x1, x2)) >> SUBPIXEL_BITS);
+		return minX <= maxX && minY <= maxY;
+	}
+	
+	/**
+	 * Rasterizes the triangle within the given clipping rectangle.
+	 * Each row of the triangle is found by solving the incremental edge functions for the first
+	 * and last pixel center inside all three edges, then every pixel of the row that passes the
+	 * depth test is passed to the fragment shader. Pixels on a shared edge are only drawn once,
+	 * following the top-left fill rule.
+	 * <p>
+	 * When a {@link SpanShader} is given, each row is instead split into runs of fragments that passed
+	 * the depth test, and each run is shaded at once.
+	 * <p>
+	 * When the {@link Shader} keeps a {@link DepthPyramid}, the parts of a row that fall in an 8x8 block
+	 * whose lowest depth is above the triangle are skipped, and the blocks drawn into are marked once
+	 * the triangle is done.
+	 * <p>
+	 * When the {@link Shader} keeps a visibility buffer, no fragment is shaded. The depth and {@link #id}
+	 * of the triangle are written for each fragment that passes instead, to be shaded by {@link #shadeVisible}.
+	 * @param fragment {@link Fragment} owned by the calling thread
+	 * @param shader {@link Shader} that provides the shading functions
+	 * @param clipX0 first column that may be drawn
+	 * @param clipY0 first row that may be drawn
+	 * @param clipX1 column after the last column that may be drawn
+	 * @param clipY1 row after the last row that may be drawn
+	 */
+	void rasterize(Fragment fragment, Shader shader, int clipX0, int clipY0, int clipX1, int clipY1)
+	{
+		DepthPyramid pyramid = shader.pyramid;
+		
+		int startX = Math.max(clipX0, minX);
+		int endX = Math.min(clipX1 - 1, maxX);
+		int startY = Math.max(clipY0, minY);
+		int endY = Math.min(clipY1 - 1, maxY);
+		if(startX > endX || startY > endY)
+			return;
+		shader.wipe(startX, startY, endX, endY);
+		
+		// Edge functions at the center of the first pixel of the first row
+		long py = ((long)startY << SUBPIXEL_BITS) + HALF_PIXEL;
+		long e0 = (x1 - x0) * (py - y0) - (y1 - y0) * (HALF_PIXEL - x0) + edgeBias(x0, y0, x1, y1);
+		long e1 = (x2 - x1) * (py - y1) - (y2 - y1) * (HALF_PIXEL - x1) + edgeBias(x1, y1, x2, y2);
+		long e2 = (x0 - x2) * (py - y2) - (y0 - y2) * (HALF_PIXEL - x2) + edgeBias(x2, y2, x0, y0);
+		
+		float[] row = fragment.row;
+		fragment.ddx = dadx;
+		fragment.ddy = dady;
+		fragment.span.frame = fragment.frame;
+		fragment.span.depthBuffer = fragment.depthBuffer;
+		fragment.span.ddy = dady;
+		
+		// Highest depth of a row within a block, relative to the depth at its center
+		float blockExtent = Math.abs(dzdx) * (DepthPyramid.BLOCK_SIZE - 1) * 0.5f + depthError;
+		
+		for(int y = startY; y <= endY; y++, e0 += b0, e1 += b1, e2 += b2)
+		{
+			// Find the span of pixel centers that are inside all three edges
+			long left = Math.max(startX, Math.max(spanLeft(e0, a0), Math.max(spanLeft(e1, a1), spanLeft(e2, a2))));
+			long right = Math.min(endX, Math.min(spanRight(e0, a0), Math.min(spanRight(e1, a1), spanRight(e2, a2))));
+			if(left > right)
+				continue;
+			
+			// Interpolate the vertex data along the row, so each pixel gets the same value
+			// no matter where the span was clipped
+			float fy = y + 0.5f - vy;
+			for(int i = 0; i < base.length; i++)
+				row[i] = base[i] + fy * dady[i];
+			float zRow = z0 + fy * dzdy;
+			
+			if(pyramid == null)
+			{
+				shadeRow(fragment, shader, y, (int)left, (int)right, zRow);
+				continue;
+			}
+			
+			// Shade the runs of blocks that aren't hidden behind the depth buffer
+			int by = y >> DepthPyramid.BLOCK_BITS;
+			int run = -1;
+			for(int bx = (int)left >> DepthPyramid.BLOCK_BITS; bx <= (int)right >> DepthPyramid.BLOCK_BITS; bx++)
+			{
+				float zBlock = zRow + ((bx << DepthPyramid.BLOCK_BITS) + DepthPyramid.BLOCK_SIZE * 0.5f - vx) * dzdx + blockExtent;
+				if(pyramid.block(bx, by) < Math.min(zBlock, maxDepth))
+				{
+					if(run < 0)
+						run = Math.max((int)left, bx << DepthPyramid.BLOCK_BITS);
+					continue;
+				}
+				if(run >= 0)
+					shadeRow(fragment, shader, y, run, (bx << DepthPyramid.BLOCK_BITS) - 1, zRow);
+				run = -1;
+			}
+			if(run >= 0)
+				shadeRow(fragment, shader, y, run, (int)right, zRow);
+		}
+		
+		if(pyramid != null)
+			pyramid.invalidate(startX, startY, endX, endY);
+	}
+	
+	/**
+	 * Shades the fragments of part of a row that pass the depth test, and counts them in the {@link Profiler} of the {@link Shader}.
+	 * @param fragment {@link Fragment} owned by the calling thread, holding the vertex data at the origin of the row
+	 * @param shader {@link Shader} that provides the shading functions
+	 * @param y row of the fragments
+	 * @param left first column to shade
+	 * @param right last column to shade
+	 * @param zRow depth at the origin of the row
+	 */
+	private void shadeRow(Fragment fragment, Shader shader, int y, int left, int right, float zRow)
+	{
+		int shaded = shadeFragments(fragment, shader, y, left, right, zRow);
+		Profiler profiler = shader.profiler;
+		if(profiler != null)
+			profiler.count(right - left + 1, shaded);
+	}
+	
+	/**
+	 * Shades the fragments of part of a row that pass the depth test. When deferred, only the closest
+	 * triangle of each pixel is kept instead, and no fragment is shaded.
+	 * @param fragment {@link Fragment} owned by the calling thread, holding the vertex data at the origin of the row
+	 * @param shader {@link Shader} that provides the shading functions
+	 * @param y row of the fragments
+	 * @param left first column to shade
+	 * @param right last column to shade
+	 * @param zRow depth at the origin of the row
+	 * @return number of fragments shaded
+	 */
+	private int shadeFragments(Fragment fragment, Shader shader, int y, int left, int right, float zRow)
+	{
+		float[] interpolated = fragment.attributes;
+		float[] row = fragment.row;
+		float[] depth = fragment.depthBuffer;
+		float fx = left + 0.5f - vx;
+		int start = left + y * shader.width;
+		
+		int[] visibility = shader.visibility;
+		if(visibility != null)
+		{
+			// Only keep the closest triangle of each pixel, to be shaded later
+			for(int index = start, end = start + right - left; index <= end; index++, fx++)
+			{
+				float z = zRow + fx * dzdx;
+				if(depth[index] < z)
+				{
+					depth[index] = z;
+					visibility[index] = id;
+				}
+			}
+			return 0;
+		}
+		
+		SpanShader spanShader = shader.spanShader;
+		if(spanShader != null)
+		{
+			Span span = fragment.span;
+			span.depthOrigin = zRow;
+			span.depthStep = dzdx;
+			span.steps = dadx;
+			System.arraycopy(row, 0, span.origin, 0, base.length);
+			return span.shadeRuns(spanShader, start, right - left + 1, fx);
+		}
+		
+		FragmentShader fragmentShader = shader.fragmentShader;
+		FragmentLoop loop = shader.loop;
+		if(loop != null)
+		{
+			return loop.shadeRow(fragment, fragmentShader, row, dadx, start, right - left + 1, fx, zRow, dzdx, true);
+		}
+		
+		// Check depth buffer and apply fragment shader for the remainder of the span
+		int shaded = 0;
+		for(int index = start, end = start + right - left; index <= end; index++, fx++)
+		{
+			float z = zRow + fx * dzdx;
+			if(depth[index] < z)
+			{
+				for(int i = 0; i < base.length; i++)
+					interpolated[i] = row[i] + fx * dadx[i];
+				fragment.index = index;
+				fragment.depth = z;
+				fragmentShader.shade( fragment );
+				shaded++;
+			}
+		}
+		return shaded;
+	}
+	
+	/**
+	 * Shades part of a row whose pixels all show this triangle in the visibility buffer.
+	 * Each fragment gets exactly the same values as when it is shaded by {@link #rasterize}.
+	 * @param fragment {@link Fragment} owned by the calling thread
+	 * @param shader {@link Shader} that provides the shading functions
+	 * @param y row of the fragments
+	 * @param left first column to shade
+	 * @param right last column to shade
+	 */
+	void shadeVisible(Fragment fragment, Shader shader, int y, int left, int right)
+	{
+		Profiler profiler = shader.profiler;
+		if(profiler != null)
+			profiler.count(0, right - left + 1);
+		
+		float[] interpolated = fragment.attributes;
+		float[] row = fragment.row;
+		fragment.ddx = dadx;
+		fragment.ddy = dady;
+		
+		float fy = y + 0.5f - vy;
+		for(int i = 0; i < base.length; i++)
+			row[i] = base[i] + fy * dady[i];
+		float zRow = z0 + fy * dzdy;
+		float fx = left + 0.5f - vx;
+		int start = left + y * shader.width;
+		
+		SpanShader spanShader = shader.spanShader;
+		if(spanShader != null)
+		{
+			Span span = fragment.span;
+			span.frame = fragment.frame;
+			span.depthBuffer = fragment.depthBuffer;
+			span.ddy = dady;
+			span.depthOrigin = zRow;
+			span.depthStep = dzdx;
+			span.steps = dadx;
+			System.arraycopy(row, 0, span.origin, 0, base.length);
+			span.shadeRun(spanShader, start, 0, right - left + 1, fx);
+			return;
+		}
+		
+		FragmentShader fragmentShader = shader.fragmentShader;
+		FragmentLoop loop = shader.loop;
+		if(loop != null)
+		{
+			loop.shadeRow(fragment, fragmentShader, row, dadx, start, right - left + 1, fx, zRow, dzdx, false);
+			return;
+		}
+		
+		for(int index = start, end = start + right - left; index <= end; index++, fx++)
+		{
+			for(int i = 0; i < base.length; i++)
+				interpolated[i] = row[i] + fx * dadx[i];
+			fragment.index = index;
+			fragment.depth = zRow + fx * dzdx;
+			fragmentShader.shade( fragment );
+		}
+	}
+	
+	/**
+	 * Returns the first column whose pixel center is inside an edge.
+	 * @param e value of the edge function at column 0
+	 * @param a change of the edge function per column
+	 * @return first column inside the edge
+	 */
+	private static long spanLeft(long e, long a)
+	{
+		if(a > 0)
+			return -Math.floorDiv(e, a);
+		return e < 0 && a == 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+	}
+	
+	/**
+	 * Returns the last column whose pixel center is inside an edge.
+	 * @param e value of the edge function at column 0
+	 * @param a change of the edge function per column
+	 * @return last column inside the edge
+	 */
+	private static long spanRight(long e, long a)
+	{
+		if(a < 0)
+			return Math.floorDiv(e, -a);
+		return e < 0 && a == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+	}
+	
+	/**
+	 * Returns the bias applied to an edge function so that pixel centers exactly on the edge
+	 * are only drawn when the edge is a top or left edge.
+	 * @return 0 for top-left edges, otherwise -1
+	 */
+	private static long edgeBias(long xa, long ya, long xb, long yb)
+	{
+		return (ya == yb && xb > xa) || yb < ya ? 0 : -1;
+	}
+}
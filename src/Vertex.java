@@ -0,0 +1,27 @@
+/**
+ * This class holds the result of the vertex shader for a single vertex.
+ * Each rendering thread owns its own {@link Vertex} objects, so a {@link VertexShader}
+ * that only writes to its {@link Vertex} can be invoked from several threads at once.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class Vertex 
+{
+	/** Horizontal position of the vertex, from 0 to 1 across the screen */
+	public float x;
+	/** Vertical position of the vertex, from 0 to 1 down the screen */
+	public float y;
+	/** Depth of the vertex, where greater values are closer */
+	public float z;
+	/** Values that are interpolated across the shape and passed to the fragment shader */
+	public final float[] attributes;
+	
+	/**
+	 * Creates a {@link Vertex} for the given vertex structure.
+	 * @param property {@link ShaderProperty} that defines the vertex structure
+	 */
+	public Vertex(ShaderProperty property)
+	{
+		attributes = new float[property.outputSize];
+	}
+}
@@ -0,0 +1,144 @@
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class holds interleaved vertices outside of the Java heap, in a direct or memory-mapped buffer.
+ * Each vertex is {@link ShaderProperty#inputSize} floats long and is read by the {@link Shader}
+ * without being copied into a float array first, so meshes of millions of vertices don't grow the heap.
+ * <p>
+ * The floats are stored in little-endian order, so a buffer can be filled straight from a file
+ * with {@link #read(FileChannel, long)} or mapped with {@link #map(File, ShaderProperty)}.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class VertexBuffer
+{
+	/** {@link ShaderProperty} that describes the layout of each vertex */
+	public final ShaderProperty property;
+	/** Number of vertices held by the buffer */
+	public final int count;
+	/** Bytes of the vertices */
+	private final ByteBuffer bytes;
+	/** Floats of the vertices, viewed over {@link #bytes} */
+	private final FloatBuffer floats;
+	
+	/**
+	 * Creates a {@link VertexBuffer} of zeroed vertices in newly allocated direct memory.
+	 * @param property {@link ShaderProperty} that describes the layout of each vertex
+	 * @param count number of vertices
+	 */
+	public VertexBuffer(ShaderProperty property, int count)
+	{
+		this(property, ByteBuffer.allocateDirect(Math.multiplyExact(count, property.inputSize * Float.BYTES)));
+	}
+	
+	/**
+	 * Creates a {@link VertexBuffer} over existing bytes, such as a mapped file.
+	 * The vertices start at the position of the bytes, and any bytes after the last whole vertex are ignored.
+	 * @param property {@link ShaderProperty} that describes the layout of each vertex
+	 * @param bytes bytes of the vertices
+	 */
+	public VertexBuffer(ShaderProperty property, ByteBuffer bytes)
+	{
+		this.property = property;
+		this.bytes = bytes.slice().order(ByteOrder.LITTLE_ENDIAN);
+		floats = this.bytes.asFloatBuffer();
+		count = property.inputSize == 0 ? 0 : floats.capacity() / property.inputSize;
+	}
+	
+	/**
+	 * Maps a file of little-endian vertices into memory as a {@link VertexBuffer}.
+	 * Only the pages that are read are loaded, and they don't count towards the Java heap.
+	 * @param file file holding the vertices
+	 * @param property {@link ShaderProperty} that describes the layout of each vertex
+	 * @return read-only {@link VertexBuffer} over the file
+	 * @throws IOException if the file can't be mapped
+	 */
+	public static VertexBuffer map(File file, ShaderProperty property) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			// The mapping stays valid after the channel is closed
+			return new VertexBuffer(property, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+	
+	/**
+	 * Fills the whole buffer with vertices read from a channel, without going through the Java heap.
+	 * @param channel channel holding little-endian vertices
+	 * @param position position within the channel of the first byte of the first vertex
+	 * @throws IOException if the channel can't be read or ends before the buffer is full
+	 */
+	public void read(FileChannel channel, long position) throws IOException
+	{
+		ByteBuffer target = bytes.duplicate();
+		target.clear();
+		while(target.hasRemaining())
+		{
+			int read = channel.read(target, position);
+			if(read < 0)
+				throw new EOFException("Channel ended after " + target.position() + " of " + target.capacity() + " bytes");
+			position += read;
+		}
+	}
+	
+	/**
+	 * Returns an element of a vertex.
+	 * @param vertex index of the vertex
+	 * @param element index of the element within the vertex
+	 * @return value of the element
+	 */
+	public float get(int vertex, int element)
+	{
+		return floats.get(vertex * property.inputSize + element);
+	}
+	
+	/**
+	 * Copies a vertex into an array.
+	 * @param vertex index of the vertex
+	 * @param out array of at least {@link ShaderProperty#inputSize} floats
+	 */
+	public void get(int vertex, float[] out)
+	{
+		// Absolute reads don't move the position, so several threads can read at once
+		for(int i = 0, offset = vertex * property.inputSize; i < property.inputSize; i++)
+			out[i] = floats.get(offset + i);
+	}
+	
+	/**
+	 * Sets an element of a vertex.
+	 * @param vertex index of the vertex
+	 * @param element index of the element within the vertex
+	 * @param value new value of the element
+	 */
+	public void set(int vertex, int element, float value)
+	{
+		floats.put(vertex * property.inputSize + element, value);
+	}
+	
+	/**
+	 * Copies a vertex from an array.
+	 * @param vertex index of the vertex
+	 * @param in array of at least {@link ShaderProperty#inputSize} floats
+	 */
+	public void set(int vertex, float[] in)
+	{
+		for(int i = 0, offset = vertex * property.inputSize; i < property.inputSize; i++)
+			floats.put(offset + i, in[i]);
+	}
+	
+	/**
+	 * Returns the bytes of the vertices, for writing them to a file or filling them from another source.
+	 * @return {@link ByteBuffer} sharing the contents of this buffer
+	 */
+	public ByteBuffer bytes()
+	{
+		return bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
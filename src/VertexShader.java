@@ -0,0 +1,15 @@
+/**
+ * Vertex Shader that is applied to each vertex.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+@FunctionalInterface
+public interface VertexShader 
+{
+	/**
+	 * Transforms a single vertex.
+	 * @param in vertex data, with the length given by {@link ShaderProperty#inputSize}
+	 * @param out {@link Vertex} that receives the position and interpolated values
+	 */
+	public void shade(float[] in, Vertex out);
+}
@@ -0,0 +1,61 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks how {@link FrameClock} divides the time of each frame into fixed updates. The frame times are
+ * fed in directly, so the results don't depend on how fast the machine runs the test.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class FrameClockTest
+{
+	/** Length of an update at 120 updates per second */
+	private static final long UPDATE_NS = Math.round(1.0e9 / 120.0);
+	/** Length of a frame at 60 frames per second */
+	private static final long FRAME_NS = Math.round(1.0e9 / 60.0);
+	
+	@Test
+	public void unpacedFrameRunsEveryUpdateThatPassed()
+	{
+		FrameClock clock = new FrameClock(0.0, 120.0);
+		assertEquals(2, clock.advance(FRAME_NS));
+		assertEquals(2, clock.advance(FRAME_NS));
+	}
+	
+	@Test
+	public void unpacedFramesKeepTheUpdateRate()
+	{
+		FrameClock clock = new FrameClock(0.0, 120.0);
+		long updates = 0;
+		for(int i = 0; i < 1000; i++)
+			updates += clock.advance(16000000L);
+		assertEquals(1000 * 16000000L / UPDATE_NS, updates);
+	}
+	
+	@Test
+	public void unpacedStallIsCappedByRecentFrameTime()
+	{
+		FrameClock clock = new FrameClock(0.0, 120.0);
+		for(int i = 0; i < 100; i++)
+			clock.advance(FRAME_NS);
+		assertEquals(2 * FrameClock.MAX_CATCH_UP, clock.advance(1000000000L));
+	}
+	
+	@Test
+	public void pacedOverrunSkipsToOneTick()
+	{
+		FrameClock clock = new FrameClock(60.0, 120.0);
+		assertEquals(2, clock.advance(FRAME_NS));
+		assertEquals(2, clock.advance(3 * FRAME_NS));
+	}
+	
+	@Test
+	public void pacedOverrunCatchesUp()
+	{
+		FrameClock clock = new FrameClock(60.0, 120.0);
+		clock.setOverrun(FrameClock.Overrun.CATCH_UP);
+		assertEquals(6, clock.advance(3 * FRAME_NS));
+		assertEquals(2 * FrameClock.MAX_CATCH_UP, clock.advance(20 * FRAME_NS));
+	}
+}
@@ -0,0 +1,163 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link Mesh} reads OBJ files into the expected triangles, and that mesh files read back
+ * the same vertices and indices they were saved with.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class MeshTest
+{
+	/** Vertex structure holding only a position */
+	private static final ShaderProperty POSITION = new ShaderProperty(3, 0, 3);
+	/** Vertex structure holding a position, texture coordinates and a normal */
+	private static final ShaderProperty FULL = new ShaderProperty(8, 0, 3);
+	
+	@Test
+	public void relativeAndNegativeIndices() throws IOException
+	{
+		Mesh mesh = load(String.join("\n",
+				"v 0 0 0", "v 1 0 0", "v 0 1 0",
+				"vt 0.5 0.25", "vn 0 0 1",
+				"f 1/1/1 2/1/1 3/1/1",
+				"v 1 1 0",
+				"vt 0.75 1",
+				"f -3/-2/-1 -1/-1/-1 -2/-2/-1"), FULL);
+		
+		float[][] expected = {
+				{ 0, 0, 0, 0.5f, 0.25f, 0, 0, 1 }, { 1, 0, 0, 0.5f, 0.25f, 0, 0, 1 }, { 0, 1, 0, 0.5f, 0.25f, 0, 0, 1 },
+				{ 1, 0, 0, 0.5f, 0.25f, 0, 0, 1 }, { 1, 1, 0, 0.75f, 1, 0, 0, 1 }, { 0, 1, 0, 0.5f, 0.25f, 0, 0, 1 } };
+		assertCorners(expected, mesh);
+		assertEquals(4, mesh.vertices.count);
+	}
+	
+	@Test
+	public void polygonFans() throws IOException
+	{
+		Mesh mesh = load(String.join("\n",
+				"v 0 0 0", "v 1 0 0", "v 1 1 0", "v 0 1 0", "v 0.5 2 0",
+				"f 1 2 3 4",
+				"f 1// 2// 3// 5// 4//"), POSITION);
+		
+		float[][] p = { { 0, 0, 0 }, { 1, 0, 0 }, { 1, 1, 0 }, { 0, 1, 0 }, { 0.5f, 2, 0 } };
+		float[][] expected = {
+				p[0], p[1], p[2], p[0], p[2], p[3],
+				p[0], p[1], p[2], p[0], p[2], p[4], p[0], p[4], p[3] };
+		assertCorners(expected, mesh);
+		assertEquals(5, mesh.triangles());
+		assertEquals(5, mesh.vertices.count);
+	}
+	
+	@Test
+	public void facesAcrossParallelChunks() throws IOException
+	{
+		// A grid of quads, each row joined to the row before it, with enough rows for several chunks
+		int columns = 100, rows = 1500;
+		StringBuilder obj = new StringBuilder();
+		List<float[]> expected = new ArrayList<>();
+		for(int r = 0; r < rows; r++)
+		{
+			for(int c = 0; c < columns; c++)
+				obj.append("v ").append(c).append(' ').append(r).append(" 0\n");
+			for(int c = 0; r > 0 && c + 1 < columns; c++)
+			{
+				// Corners of the quad, counted back from the last vertex when relative
+				int[] back = { 2 * columns - c, 2 * columns - c - 1, columns - c - 1, columns - c };
+				obj.append('f');
+				for(int b : back)
+					obj.append(' ').append((r + c) % 2 == 0 ? -b : (r + 1) * columns - b + 1);
+				obj.append('\n');
+				
+				float[][] quad = { { c, r - 1, 0 }, { c + 1, r - 1, 0 }, { c + 1, r, 0 }, { c, r, 0 } };
+				for(int i : new int[] { 0, 1, 2, 0, 2, 3 })
+					expected.add(quad[i]);
+			}
+		}
+		
+		File file = file(obj.toString());
+		assertTrue(file.length() > 2 * Mesh.CHUNK_BYTES);
+		Mesh mesh = Mesh.loadObj(file, POSITION);
+		assertCorners(expected.toArray(new float[0][]), mesh);
+		assertEquals(columns * rows, mesh.vertices.count);
+	}
+	
+	@Test
+	public void saveAndMapRoundTrip() throws IOException
+	{
+		Mesh mesh = load(String.join("\n",
+				"v 0 0 0", "v 1 0 0", "v 1 1 0", "v 0 1 0",
+				"vt 0 0", "vt 1 1",
+				"vn 0 0 1",
+				"f 1/1/1 2/2/1 3/1/1 4/2/1",
+				"f 3//1 2//1 1//1"), FULL);
+		File file = File.createTempFile("mesh", ".mesh");
+		file.deleteOnExit();
+		mesh.save(file);
+		Mesh mapped = Mesh.map(file, FULL);
+		
+		assertEquals(mesh.vertices.count, mapped.vertices.count);
+		assertEquals(mesh.indices.capacity(), mapped.indices.capacity());
+		for(int i = 0; i < mesh.indices.capacity(); i++)
+			assertEquals(mesh.indices.get(i), mapped.indices.get(i));
+		float[] vertex = new float[FULL.inputSize], actual = new float[FULL.inputSize];
+		for(int v = 0; v < mesh.vertices.count; v++)
+		{
+			mesh.vertices.get(v, vertex);
+			mapped.vertices.get(v, actual);
+			assertArrayEquals(vertex, actual, 0.0f);
+		}
+	}
+	
+	/**
+	 * Checks the vertex of each index of a {@link Mesh}.
+	 * @param expected vertex of each index
+	 * @param mesh checked {@link Mesh}
+	 */
+	private static void assertCorners(float[][] expected, Mesh mesh)
+	{
+		assertEquals(expected.length, mesh.indices.capacity());
+		float[] vertex = new float[mesh.vertices.property.inputSize];
+		for(int i = 0; i < expected.length; i++)
+		{
+			mesh.vertices.get(mesh.indices.get(i), vertex);
+			assertArrayEquals("Corner " + i, expected[i], vertex, 0.0f);
+		}
+	}
+	
+	/**
+	 * Loads an OBJ file with the given contents.
+	 * @param obj lines of the OBJ file
+	 * @param property {@link ShaderProperty} that describes the layout of each vertex
+	 * @return loaded {@link Mesh}
+	 * @throws IOException if the file can't be written or loaded
+	 */
+	private static Mesh load(String obj, ShaderProperty property) throws IOException
+	{
+		return Mesh.loadObj(file(obj + "\n"), property);
+	}
+	
+	/**
+	 * Writes a temporary file that is deleted when the tests end.
+	 * @param contents text of the file
+	 * @return new file
+	 * @throws IOException if the file can't be written
+	 */
+	private static File file(String contents) throws IOException
+	{
+		File file = File.createTempFile("mesh", ".obj");
+		file.deleteOnExit();
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.US_ASCII));
+		return file;
+	}
+}
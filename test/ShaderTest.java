@@ -0,0 +1,129 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+/**
+ * Checks that the built-in rasterizer of {@link Shader} draws the same pixels no matter how the
+ * triangles are given to it.
+ * @version Last Edited: October/18/2026
+ * @author Sean Rannie
+ */
+public class ShaderTest
+{
+	/** Width and height of the frame */
+	private static final int SIZE = 64;
+	/** Vertex structure of the tests: a position on the screen from 0 to 1, passed through by the vertex shader */
+	private static final ShaderProperty PROPERTY = new ShaderProperty(3, 0, 3);
+	
+	@Test
+	public void vertexBufferCornersSharingACacheSlot()
+	{
+		// Vertices 0 and 1024 fall into the same slot of the vertex cache
+		float[] vertices = new float[1025 * 3];
+		float[][] corners = { { 0.1f, 0.1f, 0.5f }, { 0.9f, 0.1f, 0.5f }, { 0.1f, 0.9f, 0.5f } };
+		int[] indices = { 0, 1024, 1 };
+		VertexBuffer buffer = new VertexBuffer(PROPERTY, 1025);
+		for(int i = 0; i < 3; i++)
+		{
+			System.arraycopy(corners[i], 0, vertices, indices[i] * 3, 3);
+			buffer.set(indices[i], corners[i]);
+		}
+		
+		Shader expected = shader();
+		expected.render(vertices, indices, Shader.Primitive.TRIANGLES);
+		Shader actual = shader();
+		actual.render(buffer, IntBuffer.wrap(indices), Shader.Primitive.TRIANGLES);
+		
+		int[] frame = Arrays.copyOf(expected.frame, SIZE * SIZE);
+		assertTrue(Arrays.stream(frame).anyMatch((c) -> c != 0));
+		assertArrayEquals(frame, Arrays.copyOf(actual.frame, SIZE * SIZE));
+	}
+	
+	@Test
+	public void lazyClearKeepsDepthPrecision()
+	{
+		lazyClearMatchesClearDepth((s) -> { });
+	}
+	
+	@Test
+	public void lazyClearWithHierarchicalDepth()
+	{
+		lazyClearMatchesClearDepth((s) -> s.setHierarchicalDepth(true));
+	}
+	
+	@Test
+	public void lazyClearWhenDeferred()
+	{
+		lazyClearMatchesClearDepth((s) -> s.setDeferred(true));
+	}
+	
+	/**
+	 * Checks that frames started with {@link Shader#clear()} look the same as frames started with 
+	 * {@link Shader#clearDepth()}, for enough frames that the generations start over.
+	 * @param setup sets up both {@link Shader}s
+	 */
+	private static void lazyClearMatchesClearDepth(Consumer<Shader> setup)
+	{
+		// Nearly the same depth, so a depth offset by each generation would round them together
+		float[][] back = { { 0.1f, 0.1f, 1.0e-8f }, { 0.9f, 0.1f, 1.0e-8f }, { 0.1f, 0.9f, 1.0e-8f } };
+		float[][] front = { { 0.2f, 0.2f, 2.0e-8f }, { 0.9f, 0.2f, 2.0e-8f }, { 0.2f, 0.9f, 2.0e-8f } };
+		Shader expected = shader((f) -> f.write(f.depth > 1.5e-8f ? 0xFF : 0xFF00));
+		Shader actual = shader((f) -> f.write(f.depth > 1.5e-8f ? 0xFF : 0xFF00));
+		setup.accept(expected);
+		setup.accept(actual);
+		
+		for(int i = 0; i < Shader.CLEAR_GENERATIONS + 8; i++)
+		{
+			expected.clearDepth();
+			actual.clear();
+			
+			// The back triangle is drawn over the front one of the last frame
+			for(Shader s : new Shader[] { expected, actual })
+			{
+				s.render(back);
+				s.render(front);
+				s.flush();
+			}
+			
+			int[] frame = new int[SIZE * SIZE], pixels = new int[SIZE * SIZE];
+			for(int p = 0; p < frame.length; p++)
+			{
+				frame[p] = expected.pixel(p);
+				pixels[p] = actual.pixel(p);
+			}
+			assertTrue(Arrays.stream(frame).anyMatch((c) -> c == 0xFF));
+			assertArrayEquals(frame, pixels);
+		}
+	}
+	
+	/**
+	 * Creates a {@link Shader} that passes positions through and fills every fragment with white.
+	 * @return new {@link Shader}
+	 */
+	private static Shader shader()
+	{
+		return shader((f) -> f.frame[f.index] = 0xFFFFFF);
+	}
+	
+	/**
+	 * Creates a {@link Shader} that passes positions through.
+	 * @param fragmentShader {@link FragmentShader} applied to each fragment
+	 * @return new {@link Shader}
+	 */
+	private static Shader shader(FragmentShader fragmentShader)
+	{
+		Shader shader = new Shader(SIZE, SIZE, PROPERTY);
+		shader.setVertexShader((in, out) -> {
+			out.x = in[0];
+			out.y = in[1];
+			out.z = in[2];
+		});
+		shader.setFragmentShader(fragmentShader);
+		return shader;
+	}
+}